@@ -0,0 +1,44 @@
+package com.example.analytics.config;
+
+import com.example.analytics.service.CacheInvalidationBus;
+import com.example.analytics.service.CustomerIdCache;
+import com.example.analytics.service.DatasetVersion;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Subscribes to cache invalidations published by other replicas.
+ */
+@Configuration
+@ConditionalOnProperty(name = "analytics.redis-invalidation.enabled", havingValue = "true")
+public class CacheInvalidationConfig {
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   CacheInvalidationBus invalidationBus,
+                                                                   CustomerIdCache customerIdCache,
+                                                                   DatasetVersion datasetVersion) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        subscribe(container, invalidationBus, CustomerIdCache.INVALIDATION_CHANNEL, customerIdCache::onInvalidationMessage);
+        subscribe(container, invalidationBus, DatasetVersion.CHANNEL, payload -> datasetVersion.onBumpMessage());
+        return container;
+    }
+
+    private static void subscribe(RedisMessageListenerContainer container, CacheInvalidationBus invalidationBus,
+                                  String channel, Consumer<String> handler) {
+        container.addMessageListener((message, pattern) -> {
+            String payload = invalidationBus.payloadFromOthers(new String(message.getBody(), StandardCharsets.UTF_8));
+            if (payload != null) {
+                handler.accept(payload);
+            }
+        }, new ChannelTopic(channel));
+    }
+}
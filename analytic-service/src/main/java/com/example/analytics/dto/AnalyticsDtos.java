@@ -1,6 +1,7 @@
 package com.example.analytics.dto;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 public class AnalyticsDtos {
@@ -38,5 +39,66 @@ public class AnalyticsDtos {
         Integer total_products,
         BigDecimal total_value
     ) {}
-}
 
+    public record IngestResult(
+        int customers,
+        int products,
+        long durationMs,
+        long rowsPerSecond
+    ) {
+        public static IngestResult empty() {
+            return new IngestResult(0, 0, 0, 0);
+        }
+
+        public static IngestResult of(int customers, int products, long durationNanos) {
+            long rows = (long) customers + products;
+            long rowsPerSecond = durationNanos > 0 ? rows * 1_000_000_000L / durationNanos : rows;
+            return new IngestResult(customers, products, durationNanos / 1_000_000, rowsPerSecond);
+        }
+    }
+
+    public enum SubmissionState {
+        QUEUED,
+        PROCESSING,
+        COMPLETED,
+        FAILED
+    }
+
+    /** Customers and distinct products in one submission's own batch. */
+    public record SubmissionResult(
+        int customers,
+        int products
+    ) {}
+
+    /**
+     * {@code result} counts this submission's own records. Submissions are
+     * written in coalesced transactions, so {@code transaction} holds the
+     * totals and duration shared by every submission of that transaction.
+     */
+    public record SubmissionStatus(
+        String submissionId,
+        String batchNumber,
+        SubmissionState state,
+        int records,
+        Instant submittedAt,
+        Instant completedAt,
+        SubmissionResult result,
+        IngestResult transaction,
+        String error
+    ) {
+        public SubmissionStatus processing() {
+            return new SubmissionStatus(submissionId, batchNumber, SubmissionState.PROCESSING, records,
+                submittedAt, null, null, null, null);
+        }
+
+        public SubmissionStatus completed(SubmissionResult result, IngestResult transaction) {
+            return new SubmissionStatus(submissionId, batchNumber, SubmissionState.COMPLETED, records,
+                submittedAt, Instant.now(), result, transaction, null);
+        }
+
+        public SubmissionStatus failed(String error) {
+            return new SubmissionStatus(submissionId, batchNumber, SubmissionState.FAILED, records,
+                submittedAt, Instant.now(), null, null, error);
+        }
+    }
+}
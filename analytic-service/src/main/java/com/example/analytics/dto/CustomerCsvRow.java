@@ -0,0 +1,13 @@
+package com.example.analytics.dto;
+
+import java.math.BigDecimal;
+
+public record CustomerCsvRow(
+    String externalId,
+    String name,
+    String email,
+    String phone,
+    String status,
+    Long totalProducts,
+    BigDecimal totalValue
+) {}
@@ -0,0 +1,44 @@
+package com.example.analytics.dto;
+
+import java.util.List;
+
+public class CustomerOnboarding {
+
+    public enum RowStatus {
+        CREATED,
+        INVALID,
+        SOAP_FAILED,
+        FAILED
+    }
+
+    public record BulkResult(
+        int total,
+        int created,
+        int failed,
+        long durationMs,
+        List<RowResult> results
+    ) {}
+
+    public record RowResult(
+        int index,
+        RowStatus status,
+        String customerId,
+        String message
+    ) {}
+
+    /**
+     * Response of the producer's bulk SOAP endpoint; {@code results} are in request order.
+     */
+    public record SoapBatchResponse(
+        int total,
+        int succeeded,
+        int failed,
+        long durationMs,
+        List<AddCustomerSoapResponse> results
+    ) {}
+
+    public record NewCustomer(
+        String externalId,
+        CustomerDTO customer
+    ) {}
+}
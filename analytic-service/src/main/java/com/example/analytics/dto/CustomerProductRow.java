@@ -0,0 +1,12 @@
+package com.example.analytics.dto;
+
+import java.math.BigDecimal;
+
+public record CustomerProductRow(
+    Long customerId,
+    String externalId,
+    String name,
+    String category,
+    BigDecimal price,
+    Integer stockLevel
+) {}
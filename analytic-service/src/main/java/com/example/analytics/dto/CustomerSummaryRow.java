@@ -0,0 +1,15 @@
+package com.example.analytics.dto;
+
+import java.math.BigDecimal;
+
+public record CustomerSummaryRow(
+    Long id,
+    String externalId,
+    String name,
+    String email,
+    String phone,
+    String status,
+    String lastBatchNumber,
+    Long totalProducts,
+    BigDecimal totalValue
+) {}
@@ -0,0 +1,39 @@
+package com.example.analytics.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class CustomerViews {
+
+    public record CustomerPage(
+        List<CustomerView> content,
+        int page,
+        int size,
+        boolean hasNext,
+        Long nextCursor
+    ) {}
+
+    public record CustomerView(
+        String id,
+        String name,
+        String email,
+        String phone,
+        String status,
+        String lastBatchNumber,
+        List<ProductView> products,
+        Summary summary
+    ) {}
+
+    public record ProductView(
+        String id,
+        String name,
+        String category,
+        BigDecimal price,
+        Integer stockLevel
+    ) {}
+
+    public record Summary(
+        long totalProducts,
+        BigDecimal totalValue
+    ) {}
+}
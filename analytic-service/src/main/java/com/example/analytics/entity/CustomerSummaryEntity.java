@@ -0,0 +1,60 @@
+package com.example.analytics.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Pre-aggregated product totals per customer, maintained by the ingest path in
+ * the same transaction that replaces the customer's products.
+ */
+@Entity
+@Table(name = "customer_summary")
+public class CustomerSummaryEntity {
+
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "total_products", nullable = false)
+    private long totalProducts;
+
+    @Column(name = "total_value", nullable = false)
+    private BigDecimal totalValue;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public long getTotalProducts() {
+        return totalProducts;
+    }
+
+    public void setTotalProducts(long totalProducts) {
+        this.totalProducts = totalProducts;
+    }
+
+    public BigDecimal getTotalValue() {
+        return totalValue;
+    }
+
+    public void setTotalValue(BigDecimal totalValue) {
+        this.totalValue = totalValue;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.analytics.repository;
+
+import com.example.analytics.dto.AnalyticsDtos;
+import com.example.analytics.dto.CustomerDTO;
+import com.example.analytics.dto.CustomerOnboarding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based writes for the ingest path. Customers are upserted and their products
+ * replaced with JDBC batches instead of per-entity Hibernate round trips.
+ */
+@Repository
+public class AnalyticsBulkRepository {
+
+    private static final String UPSERT_CUSTOMER_SQL = """
+        INSERT INTO customers (external_id, name, email, phone, status, last_analytics_timestamp, last_batch_number)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (external_id) DO UPDATE SET
+            name = EXCLUDED.name,
+            email = EXCLUDED.email,
+            phone = EXCLUDED.phone,
+            status = EXCLUDED.status,
+            last_analytics_timestamp = COALESCE(EXCLUDED.last_analytics_timestamp, customers.last_analytics_timestamp),
+            last_batch_number = EXCLUDED.last_batch_number
+        """;
+
+    private static final String INSERT_NEW_CUSTOMER_SQL = """
+        INSERT INTO customers (external_id, name, email, phone, status)
+        VALUES (?, ?, ?, ?, 'ACTIVE')
+        ON CONFLICT (external_id) DO NOTHING
+        """;
+
+    private static final String SELECT_CUSTOMER_IDS_SQL =
+        "SELECT id, external_id FROM customers WHERE external_id = ANY(?)";
+
+    private static final String DELETE_PRODUCTS_SQL =
+        "DELETE FROM products WHERE customer_id = ANY(?)";
+
+    private static final String INSERT_PRODUCT_SQL = """
+        INSERT INTO products (external_id, name, category, price, stock_level, customer_id)
+        VALUES (?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String UPSERT_SUMMARY_SQL = """
+        INSERT INTO customer_summary (customer_id, total_products, total_value, updated_at)
+        VALUES (?, ?, ?, now())
+        ON CONFLICT (customer_id) DO UPDATE SET
+            total_products = EXCLUDED.total_products,
+            total_value = EXCLUDED.total_value,
+            updated_at = EXCLUDED.updated_at
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public AnalyticsBulkRepository(JdbcTemplate jdbcTemplate,
+                                   @Value("${analytics.ingest.jdbc-batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void upsertCustomers(Collection<CustomerUpsert> upserts) {
+        jdbcTemplate.batchUpdate(UPSERT_CUSTOMER_SQL, upserts, batchSize, (ps, upsert) -> {
+            AnalyticsDtos.AnalyticsRecord record = upsert.record();
+            AnalyticsDtos.Customer customer = record.customer();
+            ps.setString(1, customer.id());
+            ps.setString(2, customer.name());
+            ps.setString(3, customer.email());
+            ps.setString(4, customer.phone());
+            ps.setString(5, customer.status());
+            if (record.timestamp() != null) {
+                ps.setTimestamp(6, Timestamp.from(Instant.parse(record.timestamp())));
+            } else {
+                ps.setNull(6, Types.TIMESTAMP_WITH_TIMEZONE);
+            }
+            ps.setString(7, upsert.batchNumber());
+        });
+    }
+
+    /**
+     * Inserts customers just created upstream. Ids already present are left
+     * untouched, as a sync may have delivered them first.
+     */
+    public void insertNewCustomers(Collection<CustomerOnboarding.NewCustomer> customers) {
+        jdbcTemplate.batchUpdate(INSERT_NEW_CUSTOMER_SQL, customers, batchSize, (ps, created) -> {
+            CustomerDTO customer = created.customer();
+            ps.setString(1, created.externalId());
+            ps.setString(2, customer.first_name() + " " + customer.last_name());
+            ps.setString(3, customer.email());
+            ps.setString(4, customer.phone());
+        });
+    }
+
+    public Map<String, Long> findIdsByExternalIds(Collection<String> externalIds) {
+        Map<String, Long> ids = new HashMap<>(externalIds.size() * 2);
+        jdbcTemplate.query(SELECT_CUSTOMER_IDS_SQL,
+            ps -> ps.setArray(1, createArray(ps, "varchar", externalIds.toArray())),
+            rs -> {
+                ids.put(rs.getString("external_id"), rs.getLong("id"));
+            });
+        return ids;
+    }
+
+    /**
+     * Replaces each customer's products; a customer mapped to an empty list is left with none.
+     */
+    public int replaceProducts(Map<Long, List<AnalyticsDtos.Product>> productsByCustomerId) {
+        if (productsByCustomerId.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.update(DELETE_PRODUCTS_SQL,
+            ps -> ps.setArray(1, createArray(ps, "bigint", productsByCustomerId.keySet().toArray())));
+
+        List<ProductRow> rows = new ArrayList<>();
+        productsByCustomerId.forEach((customerId, products) ->
+            products.forEach(product -> rows.add(new ProductRow(customerId, product))));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, rows, batchSize, (ps, row) -> {
+            AnalyticsDtos.Product product = row.product();
+            ps.setString(1, product.id());
+            ps.setString(2, product.name());
+            ps.setString(3, product.category());
+            ps.setBigDecimal(4, product.price());
+            if (product.stock_level() != null) {
+                ps.setInt(5, product.stock_level());
+            } else {
+                ps.setNull(5, Types.INTEGER);
+            }
+            ps.setLong(6, row.customerId());
+        });
+        return rows.size();
+    }
+
+    public void upsertSummaries(Map<Long, List<AnalyticsDtos.Product>> productsByCustomerId) {
+        jdbcTemplate.batchUpdate(UPSERT_SUMMARY_SQL, productsByCustomerId.entrySet(), batchSize, (ps, entry) -> {
+            BigDecimal totalValue = BigDecimal.ZERO;
+            for (AnalyticsDtos.Product product : entry.getValue()) {
+                if (product.price() != null) {
+                    totalValue = totalValue.add(product.price());
+                }
+            }
+            ps.setLong(1, entry.getKey());
+            ps.setLong(2, entry.getValue().size());
+            ps.setBigDecimal(3, totalValue);
+        });
+    }
+
+    private static Array createArray(PreparedStatement ps, String type, Object[] values) throws SQLException {
+        return ps.getConnection().createArrayOf(type, values);
+    }
+
+    public record CustomerUpsert(String batchNumber, AnalyticsDtos.AnalyticsRecord record) {}
+
+    private record ProductRow(Long customerId, AnalyticsDtos.Product product) {}
+}
@@ -1,12 +1,53 @@
 package com.example.analytics.repository;
 
+import com.example.analytics.dto.CustomerCsvRow;
+import com.example.analytics.dto.CustomerSummaryRow;
 import com.example.analytics.entity.CustomerEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CustomerRepository extends JpaRepository<CustomerEntity, Long> {
 
     Optional<CustomerEntity> findByExternalId(String externalId);
-}
 
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        select new com.example.analytics.dto.CustomerCsvRow(
+            c.externalId, c.name, c.email, c.phone, c.status, s.totalProducts, s.totalValue)
+        from CustomerEntity c left join CustomerSummaryEntity s on s.customerId = c.id
+        order by c.id
+        """)
+    Stream<CustomerCsvRow> streamCsvRows();
+
+    /**
+     * One page of customers with their pre-aggregated product totals. Callers page
+     * either by offset ({@code afterId = 0}) or by keyset on {@code id}.
+     */
+    @Query("""
+        select new com.example.analytics.dto.CustomerSummaryRow(
+            c.id, c.externalId, c.name, c.email, c.phone, c.status, c.lastBatchNumber, s.totalProducts, s.totalValue)
+        from CustomerEntity c left join CustomerSummaryEntity s on s.customerId = c.id
+        where c.id > :afterId
+          and (:status is null or c.status = :status)
+          and (:category is null or exists (
+                select 1 from ProductEntity p where p.customer = c and p.category = :category))
+        order by c.id
+        """)
+    Slice<CustomerSummaryRow> findSummaryPage(
+        @Param("afterId") long afterId,
+        @Param("status") String status,
+        @Param("category") String category,
+        Pageable pageable);
+}
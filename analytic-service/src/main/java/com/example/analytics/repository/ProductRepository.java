@@ -1,8 +1,39 @@
 package com.example.analytics.repository;
 
+import com.example.analytics.dto.CustomerProductRow;
+import com.example.analytics.dto.ProductCsvRow;
 import com.example.analytics.entity.ProductEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
-}
 
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        select new com.example.analytics.dto.ProductCsvRow(
+            p.externalId, p.name, p.category, p.price, p.stockLevel, c.externalId)
+        from ProductEntity p join p.customer c
+        order by p.id
+        """)
+    Stream<ProductCsvRow> streamCsvRows();
+
+    @Query("""
+        select new com.example.analytics.dto.CustomerProductRow(
+            p.customer.id, p.externalId, p.name, p.category, p.price, p.stockLevel)
+        from ProductEntity p
+        where p.customer.id in :customerIds
+        order by p.id
+        """)
+    List<CustomerProductRow> findRowsByCustomerIds(@Param("customerIds") Collection<Long> customerIds);
+}
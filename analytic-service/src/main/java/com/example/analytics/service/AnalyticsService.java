@@ -2,23 +2,41 @@ package com.example.analytics.service;
 
 import com.example.analytics.dto.AddCustomerSoapResponse;
 import com.example.analytics.dto.AnalyticsDtos;
+import com.example.analytics.dto.CustomerCsvRow;
+import com.example.analytics.dto.CustomerProductRow;
+import com.example.analytics.dto.CustomerSummaryRow;
+import com.example.analytics.dto.CustomerViews;
+import com.example.analytics.dto.ProductCsvRow;
 import com.example.analytics.entity.CustomerEntity;
-import com.example.analytics.entity.ProductEntity;
+import com.example.analytics.repository.AnalyticsBulkRepository;
 import com.example.analytics.repository.CustomerRepository;
 import com.example.analytics.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 @Service
 public class AnalyticsService {
@@ -27,116 +45,151 @@ public class AnalyticsService {
 
     private final CustomerRepository customerRepository;
     private final ProductRepository productRepository;
+    private final AnalyticsBulkRepository bulkRepository;
+    private final CustomerIdCache customerIdCache;
+    private final DatasetVersion datasetVersion;
     private final RestTemplate restTemplate;
     private final String producerBaseUrl;
     private final String consumerBaseUrl;
+    private final Timer ingestTimer;
+    private final Counter customerRowsWritten;
+    private final Counter productRowsWritten;
 
     public AnalyticsService(
         CustomerRepository customerRepository,
         ProductRepository productRepository,
+        AnalyticsBulkRepository bulkRepository,
+        CustomerIdCache customerIdCache,
+        DatasetVersion datasetVersion,
         RestTemplate restTemplate,
+        MeterRegistry meterRegistry,
         @Value("${analytics.producer.base-url}") String producerBaseUrl,
         @Value("${analytics.consumer.base-url}") String consumerBaseUrl
     ) {
         this.customerRepository = customerRepository;
         this.productRepository = productRepository;
+        this.bulkRepository = bulkRepository;
+        this.customerIdCache = customerIdCache;
+        this.datasetVersion = datasetVersion;
         this.restTemplate = restTemplate;
         this.producerBaseUrl = producerBaseUrl;
         this.consumerBaseUrl = consumerBaseUrl;
+        this.ingestTimer = Timer.builder("analytics.ingest.duration")
+            .description("Time to write one coalesced ingest transaction")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.customerRowsWritten = meterRegistry.counter("analytics.ingest.rows", "table", "customers");
+        this.productRowsWritten = meterRegistry.counter("analytics.ingest.rows", "table", "products");
     }
 
     @Transactional
-    public void saveBatch(AnalyticsDtos.AnalyticsBatchRequest batch) {
-        if (batch == null || batch.data() == null || batch.data().isEmpty()) {
-            log.info("Received empty analytics batch");
-            return;
-        }
-
-        List<CustomerEntity> updatedCustomers = new ArrayList<>();
+    public AnalyticsDtos.IngestResult saveBatch(AnalyticsDtos.AnalyticsBatchRequest batch) {
+        return saveBatches(batch != null ? List.of(batch) : List.of());
+    }
 
-        for (AnalyticsDtos.AnalyticsRecord record : batch.data()) {
-            if (record.customer() == null || record.products() == null || record.products().isEmpty()) {
+    /**
+     * Writes several batches in one transaction. Used by the ingestion queue to
+     * coalesce small submissions into a single set of JDBC batches.
+     */
+    @Transactional
+    public AnalyticsDtos.IngestResult saveBatches(List<AnalyticsDtos.AnalyticsBatchRequest> batches) {
+        long start = System.nanoTime();
+
+        // Last record wins when the same customer appears more than once. An empty
+        // product list is kept: it clears the products of a customer whose last one was removed.
+        // Rows are written in key order so concurrent transactions lock shared customers in the same order.
+        Map<String, AnalyticsBulkRepository.CustomerUpsert> upsertsByExternalId = new TreeMap<>();
+        for (AnalyticsDtos.AnalyticsBatchRequest batch : batches) {
+            if (batch.data() == null) {
                 continue;
             }
-
-            String customerExternalId = record.customer().id();
-            CustomerEntity customer = customerRepository
-                .findByExternalId(customerExternalId)
-                .orElseGet(CustomerEntity::new);
-
-            customer.setExternalId(customerExternalId);
-            customer.setName(record.customer().name());
-            customer.setEmail(record.customer().email());
-            customer.setPhone(record.customer().phone());
-            customer.setStatus(record.customer().status());
-            customer.setLastBatchNumber(batch.batchNumber());
-            if (record.timestamp() != null) {
-                customer.setLastAnalyticsTimestamp(Instant.parse(record.timestamp()));
+            for (AnalyticsDtos.AnalyticsRecord record : batch.data()) {
+                if (record.customer() == null || record.products() == null) {
+                    continue;
+                }
+                upsertsByExternalId.put(record.customer().id(),
+                    new AnalyticsBulkRepository.CustomerUpsert(batch.batchNumber(), record));
             }
+        }
 
-            if (customer.getId() != null) {
-                customer.getProducts().clear();
-                customerRepository.saveAndFlush(customer);
-            }
+        if (upsertsByExternalId.isEmpty()) {
+            log.info("Received empty analytics batch");
+            return AnalyticsDtos.IngestResult.empty();
+        }
 
-            for (AnalyticsDtos.Product p : record.products()) {
-                ProductEntity product = new ProductEntity();
-                product.setExternalId(p.id());
-                product.setName(p.name());
-                product.setCategory(p.category());
-                product.setPrice(p.price());
-                product.setStockLevel(p.stock_level());
-                product.setCustomer(customer);
-                customer.getProducts().add(product);
-            }
+        bulkRepository.upsertCustomers(upsertsByExternalId.values());
+        Map<String, Long> customerIds = customerIdCache.getAll(
+            upsertsByExternalId.keySet(), bulkRepository::findIdsByExternalIds);
+
+        Map<Long, List<AnalyticsDtos.Product>> productsByCustomerId = new TreeMap<>();
+        upsertsByExternalId.forEach((externalId, upsert) ->
+            productsByCustomerId.put(customerIds.get(externalId), distinctProducts(upsert.record().products())));
+        int productsWritten = bulkRepository.replaceProducts(productsByCustomerId);
+        bulkRepository.upsertSummaries(productsByCustomerId);
+        datasetVersion.bumpAfterCommit();
+
+        AnalyticsDtos.IngestResult result = AnalyticsDtos.IngestResult.of(
+            upsertsByExternalId.size(), productsWritten, System.nanoTime() - start);
+        ingestTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        customerRowsWritten.increment(result.customers());
+        productRowsWritten.increment(result.products());
+        log.info("Saved {} customers and {} products from {} batches in {} ms ({} rows/s)",
+            result.customers(), result.products(), batches.size(), result.durationMs(), result.rowsPerSecond());
+        return result;
+    }
 
-            updatedCustomers.add(customer);
+    /**
+     * Products are unique per customer by external id; the last duplicate wins.
+     */
+    private static List<AnalyticsDtos.Product> distinctProducts(List<AnalyticsDtos.Product> products) {
+        if (products.size() < 2) {
+            return products;
         }
-
-        if (!updatedCustomers.isEmpty()) {
-            customerRepository.saveAll(updatedCustomers);
-            log.info("Saved {} customers to database", updatedCustomers.size());
+        Map<String, AnalyticsDtos.Product> byExternalId = new LinkedHashMap<>(products.size() * 2);
+        for (AnalyticsDtos.Product product : products) {
+            byExternalId.put(product.id(), product);
         }
+        return byExternalId.size() == products.size() ? products : new ArrayList<>(byExternalId.values());
     }
 
     @Transactional(readOnly = true)
-    public List<Map<String, Object>> getAllCustomersWithProducts() {
-        List<CustomerEntity> customers = customerRepository.findAll();
-        List<Map<String, Object>> result = new ArrayList<>();
-
-        for (CustomerEntity customer : customers) {
-            Map<String, Object> customerData = new HashMap<>();
-            customerData.put("id", customer.getExternalId());
-            customerData.put("name", customer.getName());
-            customerData.put("email", customer.getEmail());
-            customerData.put("phone", customer.getPhone());
-            customerData.put("status", customer.getStatus());
-            customerData.put("lastBatchNumber", customer.getLastBatchNumber());
-
-            List<Map<String, Object>> products = new ArrayList<>();
-            for (ProductEntity product : customer.getProducts()) {
-                Map<String, Object> productData = new HashMap<>();
-                productData.put("id", product.getExternalId());
-                productData.put("name", product.getName());
-                productData.put("category", product.getCategory());
-                productData.put("price", product.getPrice());
-                productData.put("stockLevel", product.getStockLevel());
-                products.add(productData);
+    public CustomerViews.CustomerPage getCustomers(int page, int size, Long afterId, String status, String category) {
+        boolean keyset = afterId != null;
+        Pageable pageable = PageRequest.of(keyset ? 0 : page, size);
+        Slice<CustomerSummaryRow> rows = customerRepository.findSummaryPage(
+            keyset ? afterId : 0L, status, category, pageable);
+
+        Map<Long, List<CustomerViews.ProductView>> productsByCustomerId = new HashMap<>();
+        if (rows.hasContent()) {
+            List<Long> customerIds = rows.getContent().stream().map(CustomerSummaryRow::id).toList();
+            for (CustomerProductRow product : productRepository.findRowsByCustomerIds(customerIds)) {
+                productsByCustomerId
+                    .computeIfAbsent(product.customerId(), id -> new ArrayList<>())
+                    .add(new CustomerViews.ProductView(
+                        product.externalId(), product.name(), product.category(), product.price(), product.stockLevel()));
             }
-            customerData.put("products", products);
-
-            Map<String, Object> summary = new HashMap<>();
-            summary.put("totalProducts", products.size());
-            summary.put("totalValue", customer.getProducts().stream()
-                .map(ProductEntity::getPrice)
-                .filter(p -> p != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add));
-            customerData.put("summary", summary);
+        }
 
-            result.add(customerData);
+        List<CustomerViews.CustomerView> customers = new ArrayList<>(rows.getNumberOfElements());
+        for (CustomerSummaryRow row : rows) {
+            customers.add(new CustomerViews.CustomerView(
+                row.externalId(),
+                row.name(),
+                row.email(),
+                row.phone(),
+                row.status(),
+                row.lastBatchNumber(),
+                productsByCustomerId.getOrDefault(row.id(), List.of()),
+                new CustomerViews.Summary(
+                    row.totalProducts() != null ? row.totalProducts() : 0,
+                    row.totalValue() != null ? row.totalValue() : BigDecimal.ZERO)
+            ));
         }
 
-        return result;
+        Long nextCursor = rows.hasNext() && !customers.isEmpty()
+            ? rows.getContent().get(rows.getNumberOfElements() - 1).id()
+            : null;
+        return new CustomerViews.CustomerPage(customers, keyset ? 0 : page, size, rows.hasNext(), nextCursor);
     }
 
     public Map triggerRefresh() {
@@ -178,58 +231,58 @@ public class AnalyticsService {
         customer.setEmail(email);
         customer.setPhone(phone);
         customer.setStatus("ACTIVE");
+        datasetVersion.bumpAfterCommit();
         return customerRepository.save(customer);
     }
 
     @Transactional(readOnly = true)
-    public String exportCustomersToCsv() {
-        List<CustomerEntity> customers = customerRepository.findAll();
-        StringBuilder csv = new StringBuilder();
-        csv.append("id,name,email,phone,status,total_products,total_value\n");
-
-        for (CustomerEntity customer : customers) {
-            BigDecimal totalValue = customer.getProducts().stream()
-                .map(ProductEntity::getPrice)
-                .filter(p -> p != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            csv.append(String.format("%s,%s,%s,%s,%s,%d,%s\n",
-                escapeCsv(customer.getExternalId()),
-                escapeCsv(customer.getName()),
-                escapeCsv(customer.getEmail()),
-                escapeCsv(customer.getPhone()),
-                escapeCsv(customer.getStatus()),
-                customer.getProducts().size(),
-                totalValue.toPlainString()
-            ));
+    public long exportCustomersToCsv(OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out);
+        csv.header("id,name,email,phone,status,total_products,total_value");
+
+        long rows = 0;
+        try (Stream<CustomerCsvRow> customers = customerRepository.streamCsvRows()) {
+            Iterator<CustomerCsvRow> iterator = customers.iterator();
+            while (iterator.hasNext()) {
+                CustomerCsvRow customer = iterator.next();
+                csv.field(customer.externalId())
+                    .field(customer.name())
+                    .field(customer.email())
+                    .field(customer.phone())
+                    .field(customer.status())
+                    .field(customer.totalProducts() != null ? customer.totalProducts() : 0)
+                    .field(customer.totalValue() != null ? customer.totalValue() : BigDecimal.ZERO)
+                    .endRow();
+                rows++;
+            }
         }
-        return csv.toString();
+        csv.flush();
+        log.info("Exported {} customers to CSV", rows);
+        return rows;
     }
 
     @Transactional(readOnly = true)
-    public String exportProductsToCsv() {
-        List<ProductEntity> products = productRepository.findAll();
-        StringBuilder csv = new StringBuilder();
-        csv.append("id,name,category,price,stock_level,customer_id\n");
-
-        for (ProductEntity product : products) {
-            csv.append(String.format("%s,%s,%s,%s,%d,%s\n",
-                escapeCsv(product.getExternalId()),
-                escapeCsv(product.getName()),
-                escapeCsv(product.getCategory()),
-                product.getPrice() != null ? product.getPrice().toPlainString() : "",
-                product.getStockLevel() != null ? product.getStockLevel() : 0,
-                escapeCsv(product.getCustomer().getExternalId())
-            ));
-        }
-        return csv.toString();
-    }
-
-    private String escapeCsv(String value) {
-        if (value == null) return "";
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
+    public long exportProductsToCsv(OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out);
+        csv.header("id,name,category,price,stock_level,customer_id");
+
+        long rows = 0;
+        try (Stream<ProductCsvRow> products = productRepository.streamCsvRows()) {
+            Iterator<ProductCsvRow> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                ProductCsvRow product = iterator.next();
+                csv.field(product.externalId())
+                    .field(product.name())
+                    .field(product.category())
+                    .field(product.price())
+                    .field(product.stockLevel() != null ? product.stockLevel() : 0)
+                    .field(product.customerExternalId())
+                    .endRow();
+                rows++;
+            }
         }
-        return value;
+        csv.flush();
+        log.info("Exported {} products to CSV", rows);
+        return rows;
     }
 }
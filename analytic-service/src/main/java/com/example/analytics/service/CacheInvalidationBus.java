@@ -0,0 +1,54 @@
+package com.example.analytics.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Broadcasts cache invalidations to the other replicas over Redis pub/sub when
+ * {@code analytics.redis-invalidation.enabled} is set, and does nothing otherwise.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final StringRedisTemplate redisTemplate;
+    // Prefixes published messages, so a replica can skip its own
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public CacheInvalidationBus(
+        ObjectProvider<StringRedisTemplate> redisTemplate,
+        @Value("${analytics.redis-invalidation.enabled:false}") boolean enabled
+    ) {
+        this.redisTemplate = enabled ? redisTemplate.getObject() : null;
+    }
+
+    public void publish(String channel, String payload) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(channel, instanceId + "\n" + payload);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish invalidation on {}: {}", channel, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the payload of a message received from another replica, or null
+     * when this replica published it.
+     */
+    public String payloadFromOthers(String message) {
+        int separator = message.indexOf('\n');
+        if (separator < 0 || message.substring(0, separator).equals(instanceId)) {
+            return null;
+        }
+        return message.substring(separator + 1);
+    }
+}
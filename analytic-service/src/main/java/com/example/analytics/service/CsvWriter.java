@@ -0,0 +1,100 @@
+package com.example.analytics.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal RFC 4180 writer that appends fields straight to a buffered stream,
+ * so a row never has to be assembled as an intermediate String.
+ */
+public class CsvWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+    private boolean firstField = true;
+
+    public CsvWriter(OutputStream out) {
+        this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public CsvWriter header(String header) throws IOException {
+        writer.write(header);
+        writer.write('\n');
+        return this;
+    }
+
+    public CsvWriter field(String value) throws IOException {
+        separator();
+        if (value != null) {
+            escape(value, writer);
+        }
+        return this;
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        separator();
+        writer.write(Long.toString(value));
+        return this;
+    }
+
+    public CsvWriter field(BigDecimal value) throws IOException {
+        separator();
+        if (value != null) {
+            writer.write(value.toPlainString());
+        }
+        return this;
+    }
+
+    public void endRow() throws IOException {
+        writer.write('\n');
+        firstField = true;
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void separator() throws IOException {
+        if (firstField) {
+            firstField = false;
+        } else {
+            writer.write(',');
+        }
+    }
+
+    static void escape(String value, Writer out) throws IOException {
+        if (!needsQuoting(value)) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
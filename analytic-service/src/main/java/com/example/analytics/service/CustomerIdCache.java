@@ -0,0 +1,121 @@
+package com.example.analytics.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory map of customer external id to row id, so steady-state ingest of
+ * customers it has seen before skips the id lookup query. Ids loaded inside a
+ * transaction are cached only once it commits, and the ids it served are
+ * dropped if it rolls back, in case one of them was stale. Invalidations reach
+ * the other replicas through the {@link CacheInvalidationBus}.
+ */
+@Component
+public class CustomerIdCache {
+
+    public static final String INVALIDATION_CHANNEL = "analytics:customer-ids:invalidate";
+
+    private final Cache<String, Long> cache;
+    private final CacheInvalidationBus invalidationBus;
+
+    public CustomerIdCache(
+        MeterRegistry meterRegistry,
+        CacheInvalidationBus invalidationBus,
+        @Value("${analytics.customer-id-cache.max-size:500000}") long maxSize
+    ) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+        this.invalidationBus = invalidationBus;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "customer-ids");
+    }
+
+    /**
+     * Returns the ids of the given customers, loading the ones not cached with
+     * {@code loader}. Customers the loader does not find are absent from the result.
+     */
+    public Map<String, Long> getAll(Collection<String> externalIds,
+                                    Function<Collection<String>, Map<String, Long>> loader) {
+        Map<String, Long> cached = cache.getAllPresent(externalIds);
+        if (cached.size() == externalIds.size()) {
+            onRollback(cached.keySet());
+            return cached;
+        }
+
+        List<String> missing = new ArrayList<>(externalIds.size() - cached.size());
+        for (String externalId : externalIds) {
+            if (!cached.containsKey(externalId)) {
+                missing.add(externalId);
+            }
+        }
+        Map<String, Long> loaded = loader.apply(missing);
+
+        Map<String, Long> ids = new HashMap<>(cached);
+        ids.putAll(loaded);
+        onRollback(cached.keySet());
+        afterCommit(() -> cache.putAll(loaded));
+        return ids;
+    }
+
+    /**
+     * Drops the given customers here and, when enabled, on every other replica.
+     * Call after deleting customers or otherwise reassigning their ids.
+     */
+    public void invalidate(Collection<String> externalIds) {
+        if (externalIds.isEmpty()) {
+            return;
+        }
+        cache.invalidateAll(externalIds);
+        invalidationBus.publish(INVALIDATION_CHANNEL, String.join("\n", externalIds));
+    }
+
+    /**
+     * Applies an invalidation published by {@link #invalidate} on another replica.
+     */
+    public void onInvalidationMessage(String payload) {
+        cache.invalidateAll(Arrays.asList(payload.split("\n")));
+    }
+
+    private void onRollback(Collection<String> served) {
+        if (served.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        List<String> externalIds = List.copyOf(served);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    invalidate(externalIds);
+                }
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
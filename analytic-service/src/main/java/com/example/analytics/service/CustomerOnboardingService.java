@@ -0,0 +1,199 @@
+package com.example.analytics.service;
+
+import com.example.analytics.dto.AddCustomerSoapResponse;
+import com.example.analytics.dto.CustomerDTO;
+import com.example.analytics.dto.CustomerOnboarding;
+import com.example.analytics.dto.CustomerOnboarding.RowResult;
+import com.example.analytics.dto.CustomerOnboarding.RowStatus;
+import com.example.analytics.repository.AnalyticsBulkRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Onboards many customers at once. Valid rows go to the producer's bulk SOAP
+ * endpoint in batches, up to {@code analytics.onboarding.max-in-flight} at a
+ * time, and each batch's created customers are inserted as soon as it returns,
+ * overlapping the database write with the SOAP calls of the next batches.
+ */
+@Service
+public class CustomerOnboardingService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerOnboardingService.class);
+
+    private final RestTemplate restTemplate;
+    private final AnalyticsBulkRepository bulkRepository;
+    private final DatasetVersion datasetVersion;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    private final String producerBaseUrl;
+    private final int batchSize;
+    private final int maxInFlight;
+
+    private ExecutorService executor;
+
+    public CustomerOnboardingService(
+        RestTemplate restTemplate,
+        AnalyticsBulkRepository bulkRepository,
+        DatasetVersion datasetVersion,
+        Validator validator,
+        MeterRegistry meterRegistry,
+        @Value("${analytics.producer.base-url}") String producerBaseUrl,
+        @Value("${analytics.onboarding.batch-size:500}") int batchSize,
+        @Value("${analytics.onboarding.max-in-flight:4}") int maxInFlight
+    ) {
+        this.restTemplate = restTemplate;
+        this.bulkRepository = bulkRepository;
+        this.datasetVersion = datasetVersion;
+        this.validator = validator;
+        this.meterRegistry = meterRegistry;
+        this.producerBaseUrl = producerBaseUrl;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "onboarding-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    public CustomerOnboarding.BulkResult onboard(List<CustomerDTO> customers) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long started = System.nanoTime();
+        RowResult[] results = new RowResult[customers.size()];
+
+        List<Integer> valid = new ArrayList<>(customers.size());
+        for (int i = 0; i < customers.size(); i++) {
+            CustomerDTO customer = customers.get(i);
+            String violations = customer == null ? "customer is required" : violations(customer);
+            if (violations == null) {
+                valid.add(i);
+            } else {
+                results[i] = new RowResult(i, RowStatus.INVALID, null, violations);
+            }
+        }
+
+        // Every batch writes only its own slots of results; join() publishes them to this thread
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < valid.size(); from += batchSize) {
+            List<Integer> batch = valid.subList(from, Math.min(from + batchSize, valid.size()));
+            batches.add(CompletableFuture.runAsync(() -> onboardBatch(customers, batch, results), executor));
+        }
+        CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+
+        int created = 0;
+        for (RowResult result : results) {
+            if (result.status() == RowStatus.CREATED) {
+                created++;
+            }
+            meterRegistry.counter("analytics.onboarding.customers", "status", result.status().name()).increment();
+        }
+        sample.stop(meterRegistry.timer("analytics.onboarding.duration"));
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Onboarded {}/{} customers in {} batches, {} ms",
+            created, customers.size(), batches.size(), durationMs);
+        return new CustomerOnboarding.BulkResult(
+            customers.size(), created, customers.size() - created, durationMs, Arrays.asList(results));
+    }
+
+    private void onboardBatch(List<CustomerDTO> customers, List<Integer> indexes, RowResult[] results) {
+        List<CustomerDTO> batch = indexes.stream().map(customers::get).toList();
+
+        CustomerOnboarding.SoapBatchResponse response;
+        try {
+            response = restTemplate.postForObject(
+                producerBaseUrl + "/api/callback/add-customers-soap",
+                batch,
+                CustomerOnboarding.SoapBatchResponse.class
+            );
+        } catch (RestClientException e) {
+            log.warn("Bulk SOAP call for {} customers failed: {}", batch.size(), e.getMessage());
+            fail(indexes, results, "Producer call failed: " + e.getMessage());
+            return;
+        }
+        if (response == null || response.results() == null || response.results().size() != batch.size()) {
+            fail(indexes, results, "Producer returned an incomplete response");
+            return;
+        }
+
+        List<CustomerOnboarding.NewCustomer> created = new ArrayList<>(batch.size());
+        List<Integer> createdIndexes = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            AddCustomerSoapResponse soap = response.results().get(i);
+            int index = indexes.get(i);
+            if (soap.soapSuccess() && soap.customerId() != null) {
+                created.add(new CustomerOnboarding.NewCustomer(soap.customerId(), batch.get(i)));
+                createdIndexes.add(index);
+                results[index] = new RowResult(index, RowStatus.CREATED, soap.customerId(), soap.soapMessage());
+            } else {
+                results[index] = new RowResult(index, RowStatus.SOAP_FAILED, soap.customerId(), soap.soapMessage());
+            }
+        }
+
+        try {
+            bulkRepository.insertNewCustomers(created);
+            if (!created.isEmpty()) {
+                datasetVersion.bumpAfterCommit();
+            }
+        } catch (DataAccessException e) {
+            log.error("Failed to store {} onboarded customers", created.size(), e);
+            for (int index : createdIndexes) {
+                RowResult row = results[index];
+                results[index] = new RowResult(index, RowStatus.FAILED, row.customerId(),
+                    "Created upstream but not stored: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private String violations(CustomerDTO customer) {
+        Set<ConstraintViolation<CustomerDTO>> violations = validator.validate(customer);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(ConstraintViolation::getMessage)
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+
+    private static void fail(List<Integer> indexes, RowResult[] results, String message) {
+        for (int index : indexes) {
+            results[index] = new RowResult(index, RowStatus.FAILED, null, message);
+        }
+    }
+}
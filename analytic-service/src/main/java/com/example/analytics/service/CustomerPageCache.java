@@ -0,0 +1,47 @@
+package com.example.analytics.service;
+
+import com.example.analytics.dto.CustomerViews;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Customer pages keyed on the {@link DatasetVersion} they were read at plus the
+ * query parameters. A write bumps the version, so pages of older versions are
+ * never hit again and just age out. Concurrent requests for a page not yet
+ * cached share a single query.
+ */
+@Component
+public class CustomerPageCache {
+
+    private final Cache<Key, CustomerViews.CustomerPage> cache;
+    private final AnalyticsService analyticsService;
+
+    public CustomerPageCache(
+        AnalyticsService analyticsService,
+        MeterRegistry meterRegistry,
+        @Value("${analytics.response-cache.max-entries:1000}") long maxEntries,
+        @Value("${analytics.response-cache.ttl:10m}") Duration ttl
+    ) {
+        this.analyticsService = analyticsService;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "customer-pages");
+    }
+
+    public CustomerViews.CustomerPage getCustomers(String version, int page, int size, Long afterId,
+                                                   String status, String category) {
+        return cache.get(new Key(version, page, size, afterId, status, category),
+            key -> analyticsService.getCustomers(page, size, afterId, status, category));
+    }
+
+    private record Key(String version, int page, int size, Long afterId, String status, String category) {}
+}
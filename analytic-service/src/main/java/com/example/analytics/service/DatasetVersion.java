@@ -0,0 +1,62 @@
+package com.example.analytics.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the customer and product data served by the read endpoints. Every
+ * committed write bumps it, here and through the {@link CacheInvalidationBus}
+ * on the other replicas, so responses cached or tagged under an older version
+ * are never served again.
+ */
+@Component
+public class DatasetVersion {
+
+    public static final String CHANNEL = "analytics:dataset-version";
+
+    private final CacheInvalidationBus invalidationBus;
+    // Differs per process, so versions from before a restart or from another replica never match
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public DatasetVersion(CacheInvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+
+    public String current() {
+        return epoch + "-" + version.get();
+    }
+
+    /**
+     * Bumps the version once the current transaction commits, or right away
+     * outside a transaction.
+     */
+    public void bumpAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump();
+            }
+        });
+    }
+
+    /**
+     * Applies a bump published by another replica.
+     */
+    public void onBumpMessage() {
+        version.incrementAndGet();
+    }
+
+    private void bump() {
+        version.incrementAndGet();
+        invalidationBus.publish(CHANNEL, "bump");
+    }
+}
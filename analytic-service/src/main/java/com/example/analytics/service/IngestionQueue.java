@@ -0,0 +1,242 @@
+package com.example.analytics.service;
+
+import com.example.analytics.dto.AnalyticsDtos;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded in-process queue between POST /analytics/api/data and the database.
+ * Workers drain it and coalesce consecutive submissions into one transaction of
+ * up to {@code analytics.ingest.max-coalesced-records} records. A transaction
+ * that loses a deadlock or lock wait to another worker is retried up to
+ * {@code analytics.ingest.lock-retries} times; submissions that still fail are
+ * reported as FAILED by GET /analytics/api/data/{id}.
+ */
+@Service
+public class IngestionQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestionQueue.class);
+
+    private final AnalyticsService analyticsService;
+    private final BlockingQueue<Submission> queue;
+    private final int workers;
+    private final int maxCoalescedRecords;
+    private final int statusRetention;
+    private final int lockRetries;
+    private final Counter rejected;
+    private final Counter lockConflicts;
+
+    private final Map<String, AnalyticsDtos.SubmissionStatus> statuses = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public IngestionQueue(
+        AnalyticsService analyticsService,
+        MeterRegistry meterRegistry,
+        @Value("${analytics.ingest.queue-capacity:200}") int queueCapacity,
+        @Value("${analytics.ingest.workers:2}") int workers,
+        @Value("${analytics.ingest.max-coalesced-records:10000}") int maxCoalescedRecords,
+        @Value("${analytics.ingest.status-retention:10000}") int statusRetention,
+        @Value("${analytics.ingest.lock-retries:3}") int lockRetries
+    ) {
+        this.analyticsService = analyticsService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        this.maxCoalescedRecords = maxCoalescedRecords;
+        this.statusRetention = statusRetention;
+        this.lockRetries = lockRetries;
+        this.rejected = meterRegistry.counter("analytics.ingest.rejected");
+        this.lockConflicts = meterRegistry.counter("analytics.ingest.lock.conflicts");
+        Gauge.builder("analytics.ingest.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "ingest-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::drain);
+        }
+        log.info("Started {} ingest workers, queue capacity {}", workers, queue.remainingCapacity());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Ingest workers did not drain within 30s, {} submissions dropped", queue.size());
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Enqueues a batch, or returns empty when the queue is full and the caller
+     * should back off.
+     */
+    public Optional<AnalyticsDtos.SubmissionStatus> submit(AnalyticsDtos.AnalyticsBatchRequest batch) {
+        int records = batch.data() != null ? batch.data().size() : 0;
+        AnalyticsDtos.SubmissionStatus status = new AnalyticsDtos.SubmissionStatus(
+            UUID.randomUUID().toString(), batch.batchNumber(), AnalyticsDtos.SubmissionState.QUEUED,
+            records, Instant.now(), null, null, null, null);
+
+        statuses.put(status.submissionId(), status);
+        if (!running || !queue.offer(new Submission(status.submissionId(), batch, records))) {
+            statuses.remove(status.submissionId());
+            rejected.increment();
+            return Optional.empty();
+        }
+        return Optional.of(status);
+    }
+
+    public Optional<AnalyticsDtos.SubmissionStatus> getStatus(String submissionId) {
+        return Optional.ofNullable(statuses.get(submissionId));
+    }
+
+    public int depth() {
+        return queue.size();
+    }
+
+    private void drain() {
+        Submission carry = null;
+        while (running || !queue.isEmpty() || carry != null) {
+            try {
+                Submission first = carry != null ? carry : queue.poll(500, TimeUnit.MILLISECONDS);
+                carry = null;
+                if (first == null) {
+                    continue;
+                }
+
+                List<Submission> group = new ArrayList<>();
+                group.add(first);
+                int records = first.records();
+                Submission next;
+                while (records < maxCoalescedRecords && (next = queue.poll()) != null) {
+                    if (records + next.records() > maxCoalescedRecords) {
+                        carry = next;
+                        break;
+                    }
+                    group.add(next);
+                    records += next.records();
+                }
+
+                process(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in ingest worker", e);
+            }
+        }
+    }
+
+    private void process(List<Submission> group) {
+        group.forEach(submission -> statuses.computeIfPresent(submission.id(), (id, status) -> status.processing()));
+        try {
+            AnalyticsDtos.IngestResult transaction = saveWithRetry(group.stream().map(Submission::batch).toList());
+            group.forEach(submission -> finish(submission.id(),
+                status -> status.completed(ownResult(submission.batch()), transaction)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            group.forEach(submission -> finish(submission.id(), status -> status.failed("Interrupted during shutdown")));
+        } catch (Exception e) {
+            if (group.size() == 1) {
+                log.error("Failed to ingest submission {}", group.get(0).id(), e);
+                finish(group.get(0).id(), status -> status.failed(e.getMessage()));
+                return;
+            }
+            // Isolate the failing submission instead of failing every batch in the group
+            log.warn("Coalesced ingest of {} submissions failed, retrying individually", group.size(), e);
+            group.forEach(submission -> process(List.of(submission)));
+        }
+    }
+
+    private AnalyticsDtos.IngestResult saveWithRetry(List<AnalyticsDtos.AnalyticsBatchRequest> batches)
+            throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return analyticsService.saveBatches(batches);
+            } catch (PessimisticLockingFailureException e) {
+                // Deadlock (40P01) or serialization failure: the transaction rolled back and can simply run again
+                lockConflicts.increment();
+                if (attempt >= lockRetries) {
+                    throw e;
+                }
+                log.warn("Ingest transaction lost a lock conflict, retrying (attempt {} of {}): {}",
+                    attempt + 1, lockRetries, e.getMostSpecificCause().getMessage());
+                Thread.sleep(ThreadLocalRandom.current().nextLong(10, 50) * (attempt + 1));
+            }
+        }
+    }
+
+    /**
+     * Counts a submission's records the way {@link AnalyticsService#saveBatches}
+     * writes them: the last record of a customer wins, products are distinct
+     * per customer. A customer also sent by a later submission of the same
+     * transaction is still counted here.
+     */
+    private static AnalyticsDtos.SubmissionResult ownResult(AnalyticsDtos.AnalyticsBatchRequest batch) {
+        if (batch.data() == null) {
+            return new AnalyticsDtos.SubmissionResult(0, 0);
+        }
+        Map<String, List<AnalyticsDtos.Product>> productsByCustomer = new HashMap<>();
+        for (AnalyticsDtos.AnalyticsRecord record : batch.data()) {
+            if (record.customer() != null && record.products() != null) {
+                productsByCustomer.put(record.customer().id(), record.products());
+            }
+        }
+        int products = 0;
+        for (List<AnalyticsDtos.Product> customerProducts : productsByCustomer.values()) {
+            products += (int) customerProducts.stream().map(AnalyticsDtos.Product::id).distinct().count();
+        }
+        return new AnalyticsDtos.SubmissionResult(productsByCustomer.size(), products);
+    }
+
+    private void finish(String submissionId, UnaryOperator<AnalyticsDtos.SubmissionStatus> transition) {
+        statuses.computeIfPresent(submissionId, (id, status) -> transition.apply(status));
+        finished.add(submissionId);
+        if (finishedCount.incrementAndGet() > statusRetention) {
+            String evicted = finished.poll();
+            if (evicted != null) {
+                statuses.remove(evicted);
+                finishedCount.decrementAndGet();
+            }
+        }
+    }
+
+    private record Submission(String id, AnalyticsDtos.AnalyticsBatchRequest batch, int records) {}
+}
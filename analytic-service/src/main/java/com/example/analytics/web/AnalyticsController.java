@@ -3,8 +3,17 @@ package com.example.analytics.web;
 import com.example.analytics.dto.AddCustomerSoapResponse;
 import com.example.analytics.dto.AnalyticsDtos;
 import com.example.analytics.dto.CustomerDTO;
+import com.example.analytics.dto.CustomerViews;
 import com.example.analytics.entity.CustomerEntity;
 import com.example.analytics.service.AnalyticsService;
+import com.example.analytics.service.CustomerOnboardingService;
+import com.example.analytics.service.CustomerPageCache;
+import com.example.analytics.service.DatasetVersion;
+import com.example.analytics.service.IngestionQueue;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -12,16 +21,29 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/analytics/api")
@@ -29,36 +51,98 @@ import java.util.Map;
 public class AnalyticsController {
 
     private static final Logger log = LoggerFactory.getLogger(AnalyticsController.class);
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
 
     private final AnalyticsService analyticsService;
+    private final IngestionQueue ingestionQueue;
+    private final CustomerOnboardingService onboardingService;
+    private final CustomerPageCache customerPageCache;
+    private final DatasetVersion datasetVersion;
+    private final MeterRegistry meterRegistry;
+    private final int maxOnboardingCustomers;
 
-    public AnalyticsController(AnalyticsService analyticsService) {
+    public AnalyticsController(AnalyticsService analyticsService, IngestionQueue ingestionQueue,
+                               CustomerOnboardingService onboardingService, CustomerPageCache customerPageCache,
+                               DatasetVersion datasetVersion, MeterRegistry meterRegistry,
+                               @Value("${analytics.onboarding.max-customers:10000}") int maxOnboardingCustomers) {
         this.analyticsService = analyticsService;
+        this.ingestionQueue = ingestionQueue;
+        this.onboardingService = onboardingService;
+        this.customerPageCache = customerPageCache;
+        this.datasetVersion = datasetVersion;
+        this.meterRegistry = meterRegistry;
+        this.maxOnboardingCustomers = maxOnboardingCustomers;
     }
 
-    @Operation(summary = "Ingest analytics batch", description = "Receives and processes a batch of merged customer-product analytics data")
+    @Operation(summary = "Ingest analytics batch", description = "Queues a batch of merged customer-product analytics data for asynchronous processing")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "202", description = "Batch accepted for processing"),
-        @ApiResponse(responseCode = "400", description = "Invalid request body")
+        @ApiResponse(responseCode = "400", description = "Invalid request body"),
+        @ApiResponse(responseCode = "429", description = "Ingestion queue is full, retry later")
     })
     @PostMapping("/data")
     public ResponseEntity<Map<String, Object>> ingestAnalytics(@RequestBody AnalyticsDtos.AnalyticsBatchRequest batch) {
         log.info("Received analytics batch, batchNumber={}", batch.batchNumber());
-        analyticsService.saveBatch(batch);
 
         Map<String, Object> result = new HashMap<>();
-        result.put("status", "accepted");
         result.put("batchNumber", batch.batchNumber());
         result.put("records", batch.data() != null ? batch.data().size() : 0);
-        return ResponseEntity.accepted().body(result);
+
+        Optional<AnalyticsDtos.SubmissionStatus> submission = ingestionQueue.submit(batch);
+        if (submission.isEmpty()) {
+            log.warn("Ingestion queue full, rejecting batchNumber={}", batch.batchNumber());
+            result.put("status", "rejected");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(result);
+        }
+
+        String submissionId = submission.get().submissionId();
+        result.put("status", "accepted");
+        result.put("submissionId", submissionId);
+        return ResponseEntity.accepted()
+            .location(URI.create("/analytics/api/data/" + submissionId))
+            .body(result);
     }
 
-    @Operation(summary = "Get all customers", description = "Retrieves all customers with their associated products")
-    @ApiResponse(responseCode = "200", description = "List of customers with products")
+    @Operation(summary = "Get ingestion status", description = "Returns the processing state of a previously submitted batch")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Submission status"),
+        @ApiResponse(responseCode = "404", description = "Unknown or expired submission id")
+    })
+    @GetMapping("/data/{submissionId}")
+    public ResponseEntity<AnalyticsDtos.SubmissionStatus> getIngestStatus(@PathVariable String submissionId) {
+        return ingestionQueue.getStatus(submissionId)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Get customers", description = "Retrieves a page of customers with their products and summary. "
+        + "Page by offset with page/size, or by keyset by passing the previous response's nextCursor as afterId. "
+        + "Send the ETag back in If-None-Match to get 304 while the data is unchanged")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page of customers with products"),
+        @ApiResponse(responseCode = "304", description = "Data unchanged since the ETag in If-None-Match")
+    })
     @GetMapping("/customers")
-    public ResponseEntity<List<Map<String, Object>>> getAnalyticsData() {
-        List<Map<String, Object>> data = analyticsService.getAllCustomersWithProducts();
-        return ResponseEntity.ok(data);
+    public ResponseEntity<CustomerViews.CustomerPage> getAnalyticsData(
+        @RequestParam(defaultValue = "0") @Min(0) int page,
+        @RequestParam(defaultValue = "50") @Min(1) @Max(500) int size,
+        @RequestParam(required = false) Long afterId,
+        @RequestParam(required = false) String status,
+        @RequestParam(required = false) String category,
+        WebRequest webRequest
+    ) {
+        String version = datasetVersion.current();
+        String etag = "\"" + version + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        CustomerViews.CustomerPage data = customerPageCache.getCustomers(version, page, size, afterId, status, category);
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .body(data);
     }
 
     @Operation(summary = "Trigger full refresh", description = "Triggers a full refresh of customers and products data via consumer service")
@@ -122,25 +206,118 @@ public class AnalyticsController {
         return ResponseEntity.ok(result);
     }
 
-    @Operation(summary = "Export customers CSV", description = "Exports all customers data as a CSV file")
-    @ApiResponse(responseCode = "200", description = "CSV file download", content = @Content(mediaType = "text/csv"))
+    @Operation(summary = "Add customers in bulk", description = "Creates many customers via the producer's bulk SOAP endpoint "
+        + "and stores them locally; returns a status per input row, in request order")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Per-row results, including rows that failed"),
+        @ApiResponse(responseCode = "400", description = "Empty request or more customers than allowed")
+    })
+    @PostMapping("/customers/bulk")
+    public ResponseEntity<?> addCustomers(@RequestBody List<CustomerDTO> customers) {
+        if (customers.isEmpty() || customers.size() > maxOnboardingCustomers) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Expected between 1 and " + maxOnboardingCustomers + " customers",
+                "received", customers.size()));
+        }
+        return ResponseEntity.ok(onboardingService.onboard(customers));
+    }
+
+    @Operation(summary = "Export customers CSV", description = "Streams all customers data as a CSV file, gzip-compressed when the client accepts it")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "CSV file download", content = @Content(mediaType = "text/csv")),
+        @ApiResponse(responseCode = "304", description = "Data unchanged since the ETag in If-None-Match")
+    })
     @GetMapping("/customers/export")
-    public ResponseEntity<byte[]> exportCustomersCsv() {
-        String csv = analyticsService.exportCustomersToCsv();
-        return ResponseEntity.ok()
-            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=customers.csv")
-            .contentType(MediaType.parseMediaType("text/csv"))
-            .body(csv.getBytes());
+    public ResponseEntity<StreamingResponseBody> exportCustomersCsv(
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        WebRequest webRequest) {
+        return csvResponse("customers", acceptEncoding, webRequest, analyticsService::exportCustomersToCsv);
     }
 
-    @Operation(summary = "Export products CSV", description = "Exports all products data as a CSV file")
-    @ApiResponse(responseCode = "200", description = "CSV file download", content = @Content(mediaType = "text/csv"))
+    @Operation(summary = "Export products CSV", description = "Streams all products data as a CSV file, gzip-compressed when the client accepts it")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "CSV file download", content = @Content(mediaType = "text/csv")),
+        @ApiResponse(responseCode = "304", description = "Data unchanged since the ETag in If-None-Match")
+    })
     @GetMapping("/products/export")
-    public ResponseEntity<byte[]> exportProductsCsv() {
-        String csv = analyticsService.exportProductsToCsv();
-        return ResponseEntity.ok()
-            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products.csv")
-            .contentType(MediaType.parseMediaType("text/csv"))
-            .body(csv.getBytes());
+    public ResponseEntity<StreamingResponseBody> exportProductsCsv(
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        WebRequest webRequest) {
+        return csvResponse("products", acceptEncoding, webRequest, analyticsService::exportProductsToCsv);
+    }
+
+    private ResponseEntity<StreamingResponseBody> csvResponse(String export, String acceptEncoding,
+                                                              WebRequest webRequest, CsvExport writer) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        // The gzip and plain bodies are different representations, so they get different tags
+        String etag = "\"" + datasetVersion.current() + (gzip ? "-gzip" : "") + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        Tags tags = Tags.of("export", export, "gzip", String.valueOf(gzip));
+
+        StreamingResponseBody body = out -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            CountingOutputStream counted = new CountingOutputStream(out);
+            long rows;
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(counted, 64 * 1024);
+                rows = writer.writeTo(gzipOut);
+                gzipOut.finish();
+            } else {
+                rows = writer.writeTo(counted);
+            }
+            sample.stop(meterRegistry.timer("analytics.export.duration", tags));
+            meterRegistry.counter("analytics.export.rows", tags).increment(rows);
+            DistributionSummary.builder("analytics.export.bytes")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(counted.count());
+        };
+
+        // checkNotModified has already set the ETag; the streaming handler would add a second one
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + export + ".csv")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .contentType(TEXT_CSV);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @FunctionalInterface
+    private interface CsvExport {
+        long writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Counts bytes as they go to the client, i.e. after compression.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long count() {
+            return count;
+        }
     }
 }
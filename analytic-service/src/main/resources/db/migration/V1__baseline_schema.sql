@@ -0,0 +1,32 @@
+-- Schema the entities map to, as Hibernate used to create it with ddl-auto: update.
+-- IF NOT EXISTS lets databases created that way adopt it (spring.flyway.baseline-version: 0).
+
+CREATE TABLE IF NOT EXISTS customers (
+    id                       bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    external_id              varchar(255) NOT NULL,
+    name                     varchar(255) NOT NULL,
+    email                    varchar(255),
+    phone                    varchar(255),
+    status                   varchar(255),
+    last_analytics_timestamp timestamp(6) with time zone,
+    last_batch_number        varchar(255),
+    CONSTRAINT uk_customers_external_id UNIQUE (external_id)
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    external_id varchar(255) NOT NULL,
+    name        varchar(255) NOT NULL,
+    category    varchar(255),
+    price       numeric(38, 2),
+    stock_level integer,
+    customer_id bigint       NOT NULL,
+    CONSTRAINT fk_products_customer FOREIGN KEY (customer_id) REFERENCES customers (id)
+);
+
+CREATE TABLE IF NOT EXISTS customer_summary (
+    customer_id    bigint         NOT NULL PRIMARY KEY,
+    total_products bigint         NOT NULL,
+    total_value    numeric(38, 2) NOT NULL,
+    updated_at     timestamp(6) with time zone
+);
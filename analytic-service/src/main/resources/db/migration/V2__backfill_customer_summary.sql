@@ -0,0 +1,8 @@
+-- Summary rows for customers ingested before customer_summary existed.
+
+INSERT INTO customer_summary (customer_id, total_products, total_value, updated_at)
+SELECT c.id, count(p.id), coalesce(sum(p.price), 0), now()
+FROM customers c
+LEFT JOIN products p ON p.customer_id = c.id
+WHERE NOT EXISTS (SELECT 1 FROM customer_summary s WHERE s.customer_id = c.id)
+GROUP BY c.id;
@@ -0,0 +1,32 @@
+-- V4 makes (customer_id, external_id) unique on products. Keep the newest row of any
+-- duplicates, recomputing the affected summaries first so they match what remains.
+
+UPDATE customer_summary s
+SET total_products = t.total_products,
+    total_value = t.total_value,
+    updated_at = now()
+FROM (
+    SELECT latest.customer_id, count(*) AS total_products, coalesce(sum(latest.price), 0) AS total_value
+    FROM (
+        SELECT DISTINCT ON (customer_id, external_id) customer_id, price
+        FROM products
+        ORDER BY customer_id, external_id, id DESC
+    ) latest
+    WHERE latest.customer_id IN (
+        SELECT customer_id FROM products GROUP BY customer_id, external_id HAVING count(*) > 1
+    )
+    GROUP BY latest.customer_id
+) t
+WHERE s.customer_id = t.customer_id;
+
+DELETE FROM products p
+USING products newer
+WHERE newer.customer_id = p.customer_id
+  AND newer.external_id = p.external_id
+  AND newer.id > p.id;
+
+-- Every sync rewrites customers and their summaries. Free space in each page lets those
+-- updates stay on the same page (HOT) instead of touching every index. Applies to pages
+-- written from now on.
+ALTER TABLE customers SET (fillfactor = 80);
+ALTER TABLE customer_summary SET (fillfactor = 80);
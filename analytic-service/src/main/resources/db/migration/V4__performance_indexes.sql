@@ -0,0 +1,31 @@
+-- Built CONCURRENTLY so existing tables stay writable; Flyway runs this migration
+-- outside a transaction. A failed concurrent build leaves an INVALID index behind,
+-- so each index is dropped first and a rerun starts clean.
+
+-- One row per product per customer. Also serves the customer_id foreign key: product
+-- deletes on ingest, the products of a page and cascading checks on customer deletes.
+DROP INDEX CONCURRENTLY IF EXISTS ux_products_customer_external;
+CREATE UNIQUE INDEX CONCURRENTLY ux_products_customer_external
+    ON products (customer_id, external_id);
+
+-- GET /customers?category=: finds the customers having a product in a category
+DROP INDEX CONCURRENTLY IF EXISTS ix_products_category_customer;
+CREATE INDEX CONCURRENTLY ix_products_category_customer
+    ON products (category, customer_id);
+
+-- GET /customers?status=: keyset pages within one status
+DROP INDEX CONCURRENTLY IF EXISTS ix_customers_status_id;
+CREATE INDEX CONCURRENTLY ix_customers_status_id
+    ON customers (status, id);
+
+-- Ingest's id lookup by external id becomes an index-only scan. The covering index
+-- takes over uk_customers_external_id rather than sitting beside it, so upserts still
+-- maintain one B-tree for external_id. The swap is one statement, so the table is
+-- never without the constraint; it keeps its name and ON CONFLICT (external_id) is
+-- unchanged. Lookups by id (the products export join) use the primary key.
+DROP INDEX CONCURRENTLY IF EXISTS ux_customers_external_id_covering;
+CREATE UNIQUE INDEX CONCURRENTLY ux_customers_external_id_covering
+    ON customers (external_id) INCLUDE (id);
+ALTER TABLE customers
+    DROP CONSTRAINT uk_customers_external_id,
+    ADD CONSTRAINT uk_customers_external_id UNIQUE USING INDEX ux_customers_external_id_covering;
@@ -0,0 +1,79 @@
+package com.example.benchmarks;
+
+import com.example.analytics.dto.CustomerCsvRow;
+import com.example.analytics.repository.CustomerRepository;
+import com.example.analytics.service.AnalyticsService;
+import com.example.analytics.service.CsvWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * CSV export without the database: {@code exportCustomers} runs
+ * {@link AnalyticsService#exportCustomersToCsv} (row formatting, escaping and
+ * UTF-8 encoding) over rows from a stub repository; {@code escapeFields} isolates
+ * {@link CsvWriter} field writing without encoding. Scores are per export of
+ * {@code rows} rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvExportBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    /** Whether names need quoting, which takes the escaping path for every row. */
+    @Param({"false", "true"})
+    public boolean quoted;
+
+    private AnalyticsService analyticsService;
+    private List<CustomerCsvRow> csvRows;
+
+    @Setup
+    public void setUp() {
+        csvRows = Fixtures.csvRows(rows, quoted);
+        Map<String, Supplier<?>> answers = Map.of("streamCsvRows", () -> csvRows.stream());
+        analyticsService = new AnalyticsService(Stubs.of(CustomerRepository.class, answers), null, null, null, null, null,
+            new SimpleMeterRegistry(), "http://localhost:8082", "http://localhost:8084");
+    }
+
+    @Benchmark
+    public long exportCustomers() throws IOException {
+        return analyticsService.exportCustomersToCsv(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void escapeFields() throws IOException {
+        CsvWriter csv = new CsvWriter(Writer.nullWriter());
+        for (CustomerCsvRow row : csvRows) {
+            csv.field(row.externalId())
+                .field(row.name())
+                .field(row.email())
+                .field(row.phone())
+                .field(row.status())
+                .endRow();
+        }
+        csv.flush();
+    }
+}
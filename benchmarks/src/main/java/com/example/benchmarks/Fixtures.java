@@ -0,0 +1,145 @@
+package com.example.benchmarks;
+
+import com.example.analytics.dto.AnalyticsDtos;
+import com.example.analytics.dto.CustomerCsvRow;
+import com.example.producer.common.model.PagedResponse;
+import com.example.producer.integrations.crm.model.Customer;
+import com.example.producer.integrations.crm.model.CustomerMessage;
+import com.example.producer.integrations.inventory.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic test data shaped like the mock-service responses, so results
+ * are comparable between runs and commits.
+ */
+final class Fixtures {
+
+    private static final String[] STATUSES = {"ACTIVE", "INACTIVE", "PENDING"};
+    private static final String[] CATEGORIES = {"Electronics", "Clothing", "Home & Garden", "Sports", "Books"};
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    private Fixtures() {
+    }
+
+    /** Configured like the Spring Boot auto-configured mapper the REST clients receive. */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    static List<Customer> customers(int count) {
+        Random random = new Random(42);
+        List<Customer> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            customers.add(Customer.builder()
+                .customerId(customerId(i))
+                .firstName("First" + i)
+                .lastName("Last" + i)
+                .email("customer" + i + "@example.com")
+                .phone(String.format("+1-555-%04d", random.nextInt(10_000)))
+                .registrationDate(EPOCH.plusSeconds(random.nextInt(31_536_000)))
+                .status(STATUSES[random.nextInt(STATUSES.length)])
+                .build());
+        }
+        return customers;
+    }
+
+    static List<Product> products(int count) {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(Product.builder()
+                .productId(String.format("PROD-%06d", i))
+                .customerId(customerId(random.nextInt(Math.max(count / 5, 1))))
+                .name("Product " + i)
+                .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                .price(price(random))
+                .stockLevel(random.nextInt(1000))
+                .lastUpdated(EPOCH.plusSeconds(random.nextInt(31_536_000)))
+                .build());
+        }
+        return products;
+    }
+
+    static <T> PagedResponse<T> page(List<T> content) {
+        return PagedResponse.<T>builder()
+            .content(content)
+            .page(0)
+            .size(content.size())
+            .totalElements(content.size() * 10L)
+            .totalPages(10)
+            .hasNext(true)
+            .hasPrevious(false)
+            .build();
+    }
+
+    static CustomerMessage customerMessage(int chunkSize) {
+        return CustomerMessage.builder()
+            .correlationId(UUID.nameUUIDFromBytes("correlation".getBytes()).toString())
+            .timestamp(EPOCH)
+            .source("integration-producer")
+            .syncRunId(UUID.nameUUIDFromBytes("sync-run".getBytes()).toString())
+            .sequence(0)
+            .totalChunks(10)
+            .data(customers(chunkSize))
+            .build();
+    }
+
+    /** Merged records as posted by the consumer-service, five products per customer. */
+    static AnalyticsDtos.AnalyticsBatchRequest analyticsBatch(int customers, int productsPerCustomer) {
+        Random random = new Random(42);
+        List<AnalyticsDtos.AnalyticsRecord> records = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            List<AnalyticsDtos.Product> products = new ArrayList<>(productsPerCustomer);
+            BigDecimal total = BigDecimal.ZERO;
+            for (int j = 0; j < productsPerCustomer; j++) {
+                BigDecimal price = price(random);
+                total = total.add(price);
+                products.add(new AnalyticsDtos.Product(
+                    String.format("PROD-%06d", i * productsPerCustomer + j),
+                    "Product " + j,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    price,
+                    random.nextInt(1000)));
+            }
+            records.add(new AnalyticsDtos.AnalyticsRecord(
+                "merge-" + i,
+                new AnalyticsDtos.Customer(customerId(i), "First" + i + " Last" + i,
+                    "customer" + i + "@example.com", "+1-555-0100", STATUSES[random.nextInt(STATUSES.length)]),
+                products,
+                new AnalyticsDtos.Summary(productsPerCustomer, total),
+                EPOCH.plusSeconds(i).toString()));
+        }
+        return new AnalyticsDtos.AnalyticsBatchRequest("batch-1", records);
+    }
+
+    /**
+     * CSV export rows. With {@code quoted}, names contain a comma and a quote so
+     * every row takes the escaping path.
+     */
+    static List<CustomerCsvRow> csvRows(int count, boolean quoted) {
+        Random random = new Random(42);
+        List<CustomerCsvRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = quoted ? "Last" + i + ", \"First\" " + i : "First" + i + " Last" + i;
+            rows.add(new CustomerCsvRow(customerId(i), name, "customer" + i + "@example.com", "+1-555-0100",
+                STATUSES[random.nextInt(STATUSES.length)], (long) random.nextInt(20), price(random)));
+        }
+        return rows;
+    }
+
+    private static String customerId(int i) {
+        return String.format("CUST-%06d", i);
+    }
+
+    private static BigDecimal price(Random random) {
+        return BigDecimal.valueOf(100 + random.nextInt(99_900), 2);
+    }
+}
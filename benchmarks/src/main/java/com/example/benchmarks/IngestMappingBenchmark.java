@@ -0,0 +1,147 @@
+package com.example.benchmarks;
+
+import com.example.analytics.dto.AnalyticsDtos;
+import com.example.analytics.repository.AnalyticsBulkRepository;
+import com.example.analytics.service.AnalyticsService;
+import com.example.analytics.service.CacheInvalidationBus;
+import com.example.analytics.service.CustomerIdCache;
+import com.example.analytics.service.DatasetVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-process part of {@link AnalyticsService#saveBatch}: de-duplicating
+ * records, grouping products by customer, summing summaries and binding every
+ * row to its JDBC batch statement. The database is replaced by a JdbcTemplate
+ * that binds parameters into a no-op statement, and after the first batch the
+ * customer ids come from {@link CustomerIdCache} as in a steady-state sync.
+ * Scores are per batch of {@code customers} customers with five products each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestMappingBenchmark {
+
+    @Param({"100", "1000"})
+    public int customers;
+
+    private AnalyticsService analyticsService;
+    private AnalyticsDtos.AnalyticsBatchRequest batch;
+
+    @Setup
+    public void setUp() {
+        batch = Fixtures.analyticsBatch(customers, 5);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CacheInvalidationBus invalidationBus = new CacheInvalidationBus(new NoRedisTemplate(), false);
+        analyticsService = new AnalyticsService(null, null, new InMemoryIdsRepository(new BindingJdbcTemplate()),
+            new CustomerIdCache(meterRegistry, invalidationBus, 500_000), new DatasetVersion(invalidationBus),
+            null, meterRegistry, "http://localhost:8082", "http://localhost:8084");
+    }
+
+    @Benchmark
+    public AnalyticsDtos.IngestResult saveBatch() {
+        return analyticsService.saveBatch(batch);
+    }
+
+    /** Runs every statement setter against a statement that discards its parameters. */
+    static class BindingJdbcTemplate extends JdbcTemplate {
+
+        private final PreparedStatement statement;
+
+        BindingJdbcTemplate() {
+            Connection connection = Stubs.of(Connection.class, Map.of());
+            statement = Stubs.of(PreparedStatement.class, Map.of("getConnection", () -> connection));
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            try {
+                for (T arg : batchArgs) {
+                    pss.setValues(statement, arg);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return new int[0][];
+        }
+
+        @Override
+        public int update(String sql, PreparedStatementSetter pss) {
+            try {
+                pss.setValues(statement);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return 0;
+        }
+    }
+
+    /** Stands in for Redis, which the bus never asks for with invalidation disabled. */
+    static class NoRedisTemplate implements ObjectProvider<StringRedisTemplate> {
+
+        @Override
+        public StringRedisTemplate getObject() {
+            throw new IllegalStateException("Redis is not available in benchmarks");
+        }
+
+        @Override
+        public StringRedisTemplate getObject(Object... args) {
+            return getObject();
+        }
+
+        @Override
+        public StringRedisTemplate getIfAvailable() {
+            return null;
+        }
+
+        @Override
+        public StringRedisTemplate getIfUnique() {
+            return null;
+        }
+    }
+
+    /** Assigns customer ids without a round trip, since the lookup query is pure I/O. */
+    static class InMemoryIdsRepository extends AnalyticsBulkRepository {
+
+        InMemoryIdsRepository(JdbcTemplate jdbcTemplate) {
+            super(jdbcTemplate, 1000);
+        }
+
+        @Override
+        public Map<String, Long> findIdsByExternalIds(Collection<String> externalIds) {
+            Map<String, Long> ids = new HashMap<>(externalIds.size() * 2);
+            long id = 1;
+            for (String externalId : externalIds) {
+                ids.put(externalId, id++);
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.benchmarks;
+
+import com.example.producer.common.config.RabbitMQBaseConfig;
+import com.example.producer.common.messaging.MessageFormat;
+import com.example.producer.integrations.crm.model.CustomerMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.postprocessor.DelegatingDecompressingPostProcessor;
+import org.springframework.amqp.support.postprocessor.GZipPostProcessor;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding one {@link CustomerMessage} chunk with the producer's
+ * AMQP message converter, in each {@code rabbitmq.message-format}. Compressed
+ * formats go through the same gzip post-processors as the RabbitTemplate.
+ * Scores are per message; divide by {@code chunkSize} for time per record.
+ * Message sizes are printed by {@link MessageSizeReport}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageCodecBenchmark {
+
+    @Param({"json", "json-gzip", "smile", "cbor"})
+    public String format;
+
+    @Param({"100", "1000"})
+    public int chunkSize;
+
+    private MessageConverter converter;
+    private MessagePostProcessor compressor;
+    private MessagePostProcessor decompressor;
+    private CustomerMessage message;
+    private Message encoded;
+
+    @Setup
+    public void setUp() {
+        MessageFormat messageFormat = messageFormat(format);
+        converter = RabbitMQBaseConfig.createMessageConverter(messageFormat);
+        if (messageFormat.isCompressed()) {
+            GZipPostProcessor gzip = new GZipPostProcessor();
+            gzip.setCopyProperties(true);
+            compressor = gzip;
+        }
+        decompressor = new DelegatingDecompressingPostProcessor();
+        message = Fixtures.customerMessage(chunkSize);
+        encoded = encode();
+    }
+
+    @Benchmark
+    public Message encode() {
+        Message encoded = converter.toMessage(message, new MessageProperties());
+        return compressor != null ? compressor.postProcessMessage(encoded) : encoded;
+    }
+
+    @Benchmark
+    public Object decode() {
+        // Decompressing strips the encoding from the properties, so each received message gets its own copy
+        Message received = MessageBuilder.withBody(encoded.getBody())
+            .copyProperties(encoded.getMessageProperties())
+            .build();
+        return converter.fromMessage(decompressor.postProcessMessage(received));
+    }
+
+    /** Maps a {@code rabbitmq.message-format} value the way Spring's relaxed binding does. */
+    static MessageFormat messageFormat(String value) {
+        return MessageFormat.valueOf(value.toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.benchmarks;
+
+import com.example.producer.common.config.RabbitMQBaseConfig;
+import com.example.producer.common.messaging.MessageFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.postprocessor.GZipPostProcessor;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Prints the encoded size of a {@code CustomerMessage} chunk per wire format,
+ * the space half of {@link MessageCodecBenchmark}. Sizes are deterministic, so
+ * they are computed once rather than measured by JMH.
+ *
+ * <p>Usage: {@code java -cp target/benchmarks.jar com.example.benchmarks.MessageSizeReport [out.json]}
+ */
+public final class MessageSizeReport {
+
+    private static final int[] CHUNK_SIZES = {100, 1000};
+    private static final String[] FORMATS = {"json", "json-gzip", "smile", "cbor"};
+
+    private MessageSizeReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ArrayNode results = objectMapper.createArrayNode();
+
+        System.out.printf("%-10s %10s %14s %14s%n", "format", "chunkSize", "bytes/msg", "bytes/record");
+        for (int chunkSize : CHUNK_SIZES) {
+            for (String format : FORMATS) {
+                int bytes = encodedSize(MessageCodecBenchmark.messageFormat(format), chunkSize);
+                double perRecord = (double) bytes / chunkSize;
+                System.out.printf("%-10s %10d %14d %14.1f%n", format, chunkSize, bytes, perRecord);
+
+                ObjectNode result = results.addObject();
+                result.put("format", format);
+                result.put("chunkSize", chunkSize);
+                result.put("bytesPerMessage", bytes);
+                result.put("bytesPerRecord", perRecord);
+            }
+        }
+
+        if (args.length > 0) {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(args[0]), results);
+        }
+    }
+
+    private static int encodedSize(MessageFormat format, int chunkSize) {
+        MessageConverter converter = RabbitMQBaseConfig.createMessageConverter(format);
+        Message message = converter.toMessage(Fixtures.customerMessage(chunkSize), new MessageProperties());
+        if (format.isCompressed()) {
+            message = new GZipPostProcessor().postProcessMessage(message);
+        }
+        return message.getBody().length;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.benchmarks;
+
+import com.example.producer.common.model.PagedResponse;
+import com.example.producer.common.pagination.PagedResponseReader;
+import com.example.producer.integrations.crm.model.Customer;
+import com.example.producer.integrations.inventory.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding one upstream page with {@link PagedResponseReader}: bound in one go
+ * ({@code read}) or walked record by record ({@code stream}), as the fetch and
+ * streaming sync modes do. Scores are per page; divide by {@code pageSize} for
+ * time per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PagedResponseDecodeBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int pageSize;
+
+    private PagedResponseReader<Customer> customerReader;
+    private PagedResponseReader<Product> productReader;
+    private byte[] customerPage;
+    private byte[] productPage;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Fixtures.objectMapper();
+        customerReader = new PagedResponseReader<>(objectMapper, Customer.class);
+        productReader = new PagedResponseReader<>(objectMapper, Product.class);
+        customerPage = objectMapper.writeValueAsBytes(Fixtures.page(Fixtures.customers(pageSize)));
+        productPage = objectMapper.writeValueAsBytes(Fixtures.page(Fixtures.products(pageSize)));
+    }
+
+    @Benchmark
+    public PagedResponse<Customer> readCustomers() throws IOException {
+        return customerReader.read(new ByteArrayInputStream(customerPage));
+    }
+
+    @Benchmark
+    public PagedResponse<Customer> streamCustomers(Blackhole blackhole) throws IOException {
+        return customerReader.stream(new ByteArrayInputStream(customerPage), blackhole::consume);
+    }
+
+    @Benchmark
+    public PagedResponse<Product> readProducts() throws IOException {
+        return productReader.read(new ByteArrayInputStream(productPage));
+    }
+
+    @Benchmark
+    public PagedResponse<Product> streamProducts(Blackhole blackhole) throws IOException {
+        return productReader.stream(new ByteArrayInputStream(productPage), blackhole::consume);
+    }
+}
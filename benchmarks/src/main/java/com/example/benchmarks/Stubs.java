@@ -0,0 +1,60 @@
+package com.example.benchmarks;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Interface stubs for the I/O edges of the services (repositories, JDBC), so a
+ * benchmark measures only the in-process work around them.
+ */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    /**
+     * A stub answering the named methods from {@code answers}; any other method
+     * returns its type's default value (null, zero or false).
+     */
+    static <T> T of(Class<T> type, Map<String, Supplier<?>> answers) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Supplier<?> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.get();
+            }
+            return defaultValue(method);
+        });
+        return type.cast(stub);
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (!returnType.isPrimitive() || returnType == void.class) {
+            return null;
+        }
+        if (returnType == boolean.class) {
+            return false;
+        }
+        if (returnType == char.class) {
+            return '\0';
+        }
+        if (returnType == long.class) {
+            return 0L;
+        }
+        if (returnType == float.class) {
+            return 0f;
+        }
+        if (returnType == double.class) {
+            return 0d;
+        }
+        if (returnType == byte.class) {
+            return (byte) 0;
+        }
+        if (returnType == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
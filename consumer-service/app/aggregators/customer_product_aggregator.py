@@ -1,9 +1,32 @@
 """
 Customer-Product aggregator - stores data in Redis,
 merges when both are available, and sends to analytics.
+
+Full sync runs are forwarded chunk by chunk rather than as one dataset. A
+customer's product list is only known to be complete once the whole products
+run has arrived, so product chunks are collected per sync_run_id in a Redis
+hash keyed by chunk sequence (redelivered chunks overwrite rather than
+duplicate) until the run's closing message, which carries the chunk count.
+The completed run is then regrouped by customer, one chunk at a time, and
+becomes the current products snapshot.
+
+Customer chunks are parked in a pending hash. Once a products snapshot
+exists, each new customer chunk is merged with it and sent straight away,
+and customers that arrived before it are drained in bounded batches. A
+customer is claimed (removed from the pending hash) before it is sent, so
+it is forwarded exactly once however chunk handling and draining interleave.
+
+Delta runs (mode "delta") carry only changed records plus tombstones. They
+are applied to persistent per-record state hashes, and only the customers
+they affect are re-sent to analytics, with the full current product list of
+each (empty once its last product is gone). A set per customer indexes its
+product ids, so a delta only reads the products of the customers it touches.
+The producer records a delta as delivered once the broker has it, so customers
+whose send fails are kept in a retry set and re-sent with the next delta.
 """
 
 import json
+from uuid import uuid4
 import redis.asyncio as redis
 from app.config.settings import settings
 from app.mappings import transform_customer_products
@@ -12,11 +35,27 @@ import structlog
 
 logger = structlog.get_logger()
 
+# Set once the per-customer product index has been built from existing state
+PRODUCT_INDEX_READY_KEY = "state:customer_products:ready"
+
+# Run id of the latest complete full products run
+CURRENT_PRODUCTS_KEY = "products:current"
+# Customers of full runs not yet forwarded, by customer_id
+PENDING_CUSTOMERS_KEY = "customers:pending"
+# Customers affected by a delta whose send to analytics failed
+DELTA_RETRY_KEY = "customers:delta_retry"
+# Customers per analytics POST when forwarding full runs
+FORWARD_BATCH_SIZE = 500
+RUN_TTL_SECONDS = 3600
+# Snapshots outlive the pointer to them, so a reader that resolved the pointer never sees them expire
+SNAPSHOT_TTL_SECONDS = RUN_TTL_SECONDS + 300
+
 
 class CustomerProductAggregator:
     def __init__(self, connector: AnalyticsConnector):
         self.redis: redis.Redis = None
         self.connector = connector
+        self._product_index_ready = False
 
     async def connect(self):
         self.redis = redis.Redis(
@@ -31,31 +70,324 @@ class CustomerProductAggregator:
         if self.redis:
             await self.redis.close()
 
-    async def add_customers(self, customers: list):
+    async def add_customers(self, customers: list, envelope: dict = None):
         logger.info(
             "Adding customers to Redis",
             customer_count=len(customers),
         )
-        await self.redis.set("customers", json.dumps(customers), ex=3600)
-        await self._try_aggregate()
+        await self._add("customers", customers, envelope or {})
 
-    async def add_products(self, products: list):
+    async def add_products(self, products: list, envelope: dict = None):
         logger.info(
             "Adding products to Redis",
             product_count=len(products),
         )
-        await self.redis.set("products", json.dumps(products), ex=3600)
-        await self._try_aggregate()
+        await self._add("products", products, envelope or {})
+
+    async def _add(self, kind: str, items: list, envelope: dict):
+        run_id = envelope.get("sync_run_id")
+        if envelope.get("mode") == "delta":
+            chunk = {"data": items, "deleted_ids": envelope.get("deleted_ids") or []}
+            chunks_key = await self._collect(kind, run_id, chunk, envelope)
+            if chunks_key is not None:
+                chunks = [chunk async for chunk in self._read_chunks(chunks_key)]
+                await self._apply_delta(kind, chunks)
+                await self.redis.delete(chunks_key)
+            return
+
+        if kind == "customers":
+            await self._add_full_customers(items)
+            return
+        if not run_id:
+            # A message without an envelope is a whole dataset on its own
+            run_id, envelope = uuid4().hex, {"sequence": 0, "total_chunks": 1}
+        chunks_key = await self._collect(kind, run_id, items, envelope)
+        if chunks_key is not None:
+            await self._complete_products_run(run_id, chunks_key)
+
+    async def _collect(self, kind: str, run_id: str, chunk, envelope: dict):
+        """Store one chunk of a run.
+
+        Once every chunk has arrived, returns the key of the hash holding them
+        to exactly one caller, which then owns the run.
+        """
+        chunks_key = f"{kind}:run:{run_id}"
+        total_key = f"{chunks_key}:total"
+        await self.redis.hset(chunks_key, str(envelope.get("sequence") or 0), json.dumps(chunk))
+        await self.redis.expire(chunks_key, RUN_TTL_SECONDS)
+
+        # Runs only learn their chunk count from the closing message
+        total_chunks = envelope.get("total_chunks")
+        if total_chunks is not None:
+            await self.redis.set(total_key, total_chunks, ex=RUN_TTL_SECONDS)
+        else:
+            stored_total = await self.redis.get(total_key)
+            total_chunks = int(stored_total) if stored_total else None
+
+        received = await self.redis.hlen(chunks_key)
+        if total_chunks is None or received < total_chunks:
+            logger.debug(
+                "Waiting for more chunks",
+                kind=kind,
+                sync_run_id=run_id,
+                received=received,
+                total_chunks=total_chunks,
+            )
+            return None
+
+        # Only the consumer that claims the run assembles it; the claim outlives
+        # the run so a late redelivery cannot complete it a second time
+        if not await self.redis.set(f"{chunks_key}:claimed", 1, nx=True, ex=RUN_TTL_SECONDS):
+            return None
+        await self.redis.delete(total_key)
+
+        logger.info(
+            "Sync run complete",
+            kind=kind,
+            sync_run_id=run_id,
+            total_chunks=total_chunks,
+        )
+        return chunks_key
+
+    async def _read_chunks(self, chunks_key: str):
+        """Yield a complete run's chunks in sequence order, one at a time."""
+        for sequence in sorted(await self.redis.hkeys(chunks_key), key=int):
+            chunk = await self.redis.hget(chunks_key, sequence)
+            if chunk is not None:
+                yield json.loads(chunk)
+
+    async def _complete_products_run(self, run_id: str, chunks_key: str):
+        """Regroup a complete products run by customer and make it the current snapshot."""
+        snapshot_key = f"products:run:{run_id}:by_customer"
+        product_count = 0
+        async for chunk in self._read_chunks(chunks_key):
+            grouped = {}
+            for product in chunk:
+                customer_id = product.get("customer_id")
+                if customer_id is not None:
+                    grouped.setdefault(customer_id, []).append(product)
+            if not grouped:
+                continue
+            customer_ids = list(grouped)
+            existing = await self.redis.hmget(snapshot_key, customer_ids)
+            await self.redis.hset(snapshot_key, mapping={
+                customer_id: json.dumps((json.loads(previous) if previous else []) + grouped[customer_id])
+                for customer_id, previous in zip(customer_ids, existing)
+            })
+            product_count += len(chunk)
+        await self.redis.expire(snapshot_key, SNAPSHOT_TTL_SECONDS)
+        # Older snapshots are left to expire: a forward may still be reading one
+        await self.redis.set(CURRENT_PRODUCTS_KEY, run_id, ex=RUN_TTL_SECONDS)
+        await self.redis.delete(chunks_key)
+        logger.info("Products snapshot ready", sync_run_id=run_id, product_count=product_count)
+
+        await self._drain_pending_customers(run_id)
+
+    async def _add_full_customers(self, customers: list):
+        """Park a customer chunk, then forward it at once if a products snapshot exists."""
+        by_id = {
+            customer["customer_id"]: json.dumps(customer)
+            for customer in customers
+            if customer.get("customer_id") is not None
+        }
+        if not by_id:
+            return
+        # Parked before the snapshot check, so a snapshot completing concurrently drains it
+        await self.redis.hset(PENDING_CUSTOMERS_KEY, mapping=by_id)
+        await self.redis.expire(PENDING_CUSTOMERS_KEY, RUN_TTL_SECONDS)
+
+        run_id = await self.redis.get(CURRENT_PRODUCTS_KEY)
+        if run_id is None:
+            logger.info("Waiting for a complete products run", pending_customers=len(by_id))
+            return
+        await self._forward(run_id, await self._claim_pending(list(by_id)))
+
+    async def _drain_pending_customers(self, run_id: str):
+        """Forward every parked customer against the given products snapshot."""
+        drained = 0
+        cursor = 0
+        while True:
+            cursor, entries = await self.redis.hscan(PENDING_CUSTOMERS_KEY, cursor, count=FORWARD_BATCH_SIZE)
+            if entries:
+                claimed = await self._claim_pending(list(entries))
+                await self._forward(run_id, claimed)
+                drained += len(claimed)
+            if cursor == 0:
+                break
+        if drained:
+            logger.info("Drained pending customers", sync_run_id=run_id, customer_count=drained)
+
+    async def _claim_pending(self, customer_ids: list) -> list:
+        """Remove customers from the pending hash, returning those this caller removed."""
+        async with self.redis.pipeline(transaction=True) as pipe:
+            pipe.hmget(PENDING_CUSTOMERS_KEY, customer_ids)
+            for customer_id in customer_ids:
+                pipe.hdel(PENDING_CUSTOMERS_KEY, customer_id)
+            values, *removed = await pipe.execute()
+        return [
+            json.loads(value)
+            for value, was_removed in zip(values, removed)
+            if value is not None and was_removed
+        ]
+
+    async def _forward(self, run_id: str, customers: list):
+        """Merge customers with their snapshot products and send them in bounded batches."""
+        snapshot_key = f"products:run:{run_id}:by_customer"
+        for start in range(0, len(customers), FORWARD_BATCH_SIZE):
+            batch = customers[start:start + FORWARD_BATCH_SIZE]
+            product_lists = await self.redis.hmget(snapshot_key, [customer["customer_id"] for customer in batch])
+            products = [product for products in product_lists if products for product in json.loads(products)]
+            try:
+                await self._merge_and_send(batch, products)
+            except Exception:
+                # Park the unsent customers again, unless a newer version arrived meanwhile
+                async with self.redis.pipeline(transaction=False) as pipe:
+                    for customer in customers[start:]:
+                        pipe.hsetnx(PENDING_CUSTOMERS_KEY, customer["customer_id"], json.dumps(customer))
+                    pipe.expire(PENDING_CUSTOMERS_KEY, RUN_TTL_SECONDS)
+                    await pipe.execute()
+                raise
+
+    async def _apply_delta(self, kind: str, chunks: list):
+        changed = [item for chunk in chunks for item in chunk["data"]]
+        deleted = [record_id for chunk in chunks for record_id in chunk["deleted_ids"]]
+        state_key = f"state:{kind}"
+
+        if kind == "customers":
+            affected = {item.get("customer_id") for item in changed}
+            if changed:
+                await self.redis.hset(
+                    state_key, mapping={item["customer_id"]: json.dumps(item) for item in changed}
+                )
+            if deleted:
+                await self.redis.hdel(state_key, *deleted)
+                logger.warning(
+                    "Customers deleted upstream are not removed from analytics",
+                    deleted_count=len(deleted),
+                )
+        else:
+            affected = await self._apply_product_delta(changed, deleted)
+        affected.discard(None)
+
+        logger.info(
+            "Applied delta",
+            kind=kind,
+            changed_count=len(changed),
+            deleted_count=len(deleted),
+            affected_customers=len(affected),
+        )
+        await self._send_affected(affected)
 
-    async def _try_aggregate(self):
-        customers_data = await self.redis.get("customers")
-        products_data = await self.redis.get("products")
+    async def _send_affected(self, affected: set):
+        """Send the given customers plus any left over from failed delta sends.
 
-        if not customers_data or not products_data:
+        The state is already applied, so on failure the customers are parked in
+        the retry set rather than lost; the next delta sends them again.
+        """
+        async with self.redis.pipeline(transaction=True) as pipe:
+            pipe.smembers(DELTA_RETRY_KEY)
+            pipe.delete(DELTA_RETRY_KEY)
+            retried, _ = await pipe.execute()
+        if retried:
+            logger.info("Retrying customers of failed delta sends", customer_count=len(retried))
+        # Redis returns ids as strings, as the customer state hash does
+        customer_ids = sorted({str(customer_id) for customer_id in affected} | retried)
+        if not customer_ids:
             return
 
-        customers = json.loads(customers_data)
-        products = json.loads(products_data)
+        try:
+            customers = [
+                json.loads(customer)
+                for customer in await self.redis.hmget("state:customers", customer_ids)
+                if customer
+            ]
+            products = await self._products_of(customer_ids)
+            await self._merge_and_send(customers, products)
+        except Exception:
+            await self.redis.sadd(DELTA_RETRY_KEY, *customer_ids)
+            logger.warning("Kept customers for retry with the next delta", customer_count=len(customer_ids))
+            raise
+
+    async def _apply_product_delta(self, changed: list, deleted: list) -> set:
+        """Apply product changes and return every customer whose product list changed.
+
+        A product that moved to another customer affects both its old and its
+        new customer, so the previous state of every touched product is read first.
+        """
+        await self._ensure_product_index()
+        changed_ids = [item["product_id"] for item in changed]
+        touched_ids = changed_ids + deleted
+        previous = await self.redis.hmget("state:products", touched_ids) if touched_ids else []
+        previous_owner = {
+            product_id: json.loads(product).get("customer_id")
+            for product_id, product in zip(touched_ids, previous)
+            if product
+        }
+
+        affected = set(previous_owner.values())
+        async with self.redis.pipeline(transaction=False) as pipe:
+            if changed:
+                pipe.hset("state:products", mapping={item["product_id"]: json.dumps(item) for item in changed})
+            for item in changed:
+                product_id, customer_id = item["product_id"], item.get("customer_id")
+                affected.add(customer_id)
+                old_owner = previous_owner.get(product_id)
+                if old_owner is not None and old_owner != customer_id:
+                    pipe.srem(self._product_index_key(old_owner), product_id)
+                if customer_id is not None:
+                    pipe.sadd(self._product_index_key(customer_id), product_id)
+            if deleted:
+                pipe.hdel("state:products", *deleted)
+            for product_id in deleted:
+                old_owner = previous_owner.get(product_id)
+                if old_owner is not None:
+                    pipe.srem(self._product_index_key(old_owner), product_id)
+            await pipe.execute()
+        return affected
+
+    async def _products_of(self, customer_ids: list) -> list:
+        """Read the current products of the given customers through the per-customer index."""
+        async with self.redis.pipeline(transaction=False) as pipe:
+            for customer_id in customer_ids:
+                pipe.smembers(self._product_index_key(customer_id))
+            members = await pipe.execute()
+
+        product_ids = sorted({product_id for ids in members for product_id in ids})
+        if not product_ids:
+            return []
+        wanted = set(customer_ids)
+        products = [
+            json.loads(product)
+            for product in await self.redis.hmget("state:products", product_ids)
+            if product
+        ]
+        # The index may briefly lag a concurrent move; the state hash is authoritative
+        return [product for product in products if product.get("customer_id") in wanted]
+
+    async def _ensure_product_index(self):
+        """Build the customer -> product ids index once from existing product state."""
+        if self._product_index_ready:
+            return
+        if not await self.redis.exists(PRODUCT_INDEX_READY_KEY):
+            indexed = 0
+            async with self.redis.pipeline(transaction=False) as pipe:
+                async for product_id, product in self.redis.hscan_iter("state:products", count=1000):
+                    customer_id = json.loads(product).get("customer_id")
+                    if customer_id is not None:
+                        pipe.sadd(self._product_index_key(customer_id), product_id)
+                        indexed += 1
+                    if len(pipe) >= 1000:
+                        await pipe.execute()
+                await pipe.execute()
+            await self.redis.set(PRODUCT_INDEX_READY_KEY, 1)
+            logger.info("Rebuilt customer product index", product_count=indexed)
+        self._product_index_ready = True
+
+    @staticmethod
+    def _product_index_key(customer_id) -> str:
+        return f"state:customer_products:{customer_id}"
+
+    async def _merge_and_send(self, customers: list, products: list):
         logger.info(
             "Starting aggregation",
             customer_count=len(customers),
@@ -70,27 +402,23 @@ class CustomerProductAggregator:
                 products_by_customer[cid] = []
             products_by_customer[cid].append(product)
 
-        # Transform and collect each customer with their products
+        # Transform every customer; an empty product list clears its products in analytics
         merged_payloads = []
         for customer in customers:
             cid = customer.get("customer_id")
             customer_products = products_by_customer.get(cid, [])
-            if customer_products:
-                logger.info(
-                    "Merging customer with products",
-                    customer_id=cid,
-                    product_count=len(customer_products),
-                )
-                merged = transform_customer_products(customer, customer_products)
-                logger.debug(
-                    "Merged payload ready for analytics",
-                    customer_id=cid,
-                    merge_id=merged.get("merge_id"),
-                )
-                merged_payloads.append(merged)
+            logger.debug(
+                "Merging customer with products",
+                customer_id=cid,
+                product_count=len(customer_products),
+            )
+            merged = transform_customer_products(customer, customer_products)
+            logger.debug(
+                "Merged payload ready for analytics",
+                customer_id=cid,
+                merge_id=merged.get("merge_id"),
+            )
+            merged_payloads.append(merged)
 
         if merged_payloads:
             await self.connector.send_batch(merged_payloads)
-
-        await self.redis.delete("customers", "products")
-        logger.info("Aggregation complete")
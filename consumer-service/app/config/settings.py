@@ -24,6 +24,8 @@ class Settings(BaseSettings):
     analytics_service_url: str = "http://localhost:8083"
     analytics_username: str = "analytics_user"
     analytics_password: str = "analytics_password"
+    # How long send_batch waits for analytics to report a queued batch stored or failed
+    analytics_ingest_wait_seconds: float = 120.0
 
     class Config:
         env_file = ".env"
@@ -1,3 +1,3 @@
-from .analytics_connector import AnalyticsConnector
+from .analytics_connector import AnalyticsConnector, AnalyticsIngestError
 
-__all__ = ["AnalyticsConnector"]
+__all__ = ["AnalyticsConnector", "AnalyticsIngestError"]
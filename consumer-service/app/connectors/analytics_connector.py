@@ -2,6 +2,7 @@
 Analytics service connector - handles outbound API calls to analytics service.
 """
 
+import asyncio
 from uuid import uuid4
 import httpx
 from app.config.settings import settings
@@ -9,6 +10,14 @@ import structlog
 
 logger = structlog.get_logger()
 
+MAX_SEND_ATTEMPTS = 5
+STATUS_POLL_INITIAL_DELAY = 0.1
+STATUS_POLL_MAX_DELAY = 2.0
+
+
+class AnalyticsIngestError(Exception):
+    """Analytics rejected a batch or failed to store it."""
+
 
 class AnalyticsConnector:
     def __init__(self):
@@ -31,21 +40,86 @@ class AnalyticsConnector:
             return self.token
 
     async def send_batch(self, merged_data: list):
-        """Send merged data to analytics service."""
-        try:
-            request_body = {
-                "batchNumber": uuid4().hex[:8].upper(),
-                "data": merged_data,
-            }
-            async with httpx.AsyncClient() as client:
-                response = await client.post(
-                    f"{settings.analytics_service_url}/analytics/api/data",
-                    json=request_body
-                )
-                response.raise_for_status()
-                logger.info(
-                    "Sent batch to analytics",
-                    batch_size=len(merged_data),
-                )
-        except Exception as e:
-            logger.error("Failed to send to analytics", error=str(e))
+        """Send merged data to analytics and wait until it has been stored.
+
+        Ingest is asynchronous: a 202 only means the batch was queued. The
+        submission is polled until analytics reports it COMPLETED or FAILED.
+
+        Raises AnalyticsIngestError when the batch is rejected or fails to
+        store, so the caller does not treat it as delivered.
+        """
+        request_body = {
+            "batchNumber": uuid4().hex[:8].upper(),
+            "data": merged_data,
+        }
+        async with httpx.AsyncClient() as client:
+            try:
+                response = await self._submit(client, request_body)
+                submission_id = response.json().get("submissionId")
+                status = await self._await_submission(client, submission_id)
+            except httpx.HTTPError as e:
+                logger.error("Failed to send to analytics", batch_size=len(merged_data), error=str(e))
+                raise AnalyticsIngestError(f"Failed to send batch to analytics: {e}") from e
+
+        state = status.get("state") if status else None
+        if state == "FAILED":
+            logger.error(
+                "Analytics failed to store batch",
+                batch_size=len(merged_data),
+                submission_id=submission_id,
+                error=status.get("error"),
+            )
+            raise AnalyticsIngestError(
+                f"Analytics submission {submission_id} failed: {status.get('error')}"
+            )
+        if state == "COMPLETED":
+            logger.info("Sent batch to analytics", batch_size=len(merged_data), submission_id=submission_id)
+        else:
+            logger.warning(
+                "Analytics submission still pending, not waiting any longer",
+                batch_size=len(merged_data),
+                submission_id=submission_id,
+                state=state,
+            )
+
+    async def _submit(self, client: httpx.AsyncClient, request_body: dict) -> httpx.Response:
+        """POST a batch, backing off while the analytics ingest queue is full."""
+        for attempt in range(1, MAX_SEND_ATTEMPTS + 1):
+            response = await client.post(
+                f"{settings.analytics_service_url}/analytics/api/data",
+                json=request_body
+            )
+            if response.status_code != 429 or attempt == MAX_SEND_ATTEMPTS:
+                break
+            delay = float(response.headers.get("Retry-After", "1")) * attempt
+            logger.warning(
+                "Analytics ingest queue full, retrying",
+                attempt=attempt,
+                delay_seconds=delay,
+            )
+            await asyncio.sleep(delay)
+        response.raise_for_status()
+        return response
+
+    async def _await_submission(self, client: httpx.AsyncClient, submission_id: str):
+        """Poll a submission until it is COMPLETED or FAILED, or the wait times out."""
+        if not submission_id:
+            return None
+        loop = asyncio.get_running_loop()
+        deadline = loop.time() + settings.analytics_ingest_wait_seconds
+        delay = STATUS_POLL_INITIAL_DELAY
+        status = None
+        while loop.time() < deadline:
+            await asyncio.sleep(delay)
+            response = await client.get(
+                f"{settings.analytics_service_url}/analytics/api/data/{submission_id}"
+            )
+            if response.status_code == 404:
+                # Status already evicted from the analytics retention window
+                return status
+            response.raise_for_status()
+            status = response.json()
+            if status.get("state") in ("COMPLETED", "FAILED"):
+                return status
+            delay = min(delay * 2, STATUS_POLL_MAX_DELAY)
+        return status
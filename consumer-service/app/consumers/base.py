@@ -2,15 +2,37 @@
 Base consumer class for RabbitMQ message handling.
 """
 
+import gzip
 import json
 from abc import ABC, abstractmethod
 from aio_pika import connect_robust, IncomingMessage
 from app.config.settings import settings
+from . import smile
+import cbor2
 import structlog
 
 logger = structlog.get_logger()
 
 
+def decode_body(message: IncomingMessage):
+    """Decode a message body according to its content encoding and type.
+
+    The producer may publish gzip-compressed JSON (content encoding
+    ``gzip:<charset>``), CBOR or Smile.
+    """
+    body = message.body
+    if (message.content_encoding or "").startswith("gzip"):
+        body = gzip.decompress(body)
+    content_type = message.content_type or "application/json"
+    if content_type == "application/cbor":
+        # Jackson writes BigDecimal as a CBOR decimal fraction; turn it into
+        # the float json.loads would have produced
+        return json.loads(json.dumps(cbor2.loads(body), default=float))
+    if content_type == "application/x-jackson-smile":
+        return smile.loads(body)
+    return json.loads(body.decode())
+
+
 class BaseConsumer(ABC):
     def __init__(self):
         self.connection = None
@@ -33,8 +55,13 @@ class BaseConsumer(ABC):
         pass
 
     @abstractmethod
-    async def process_message(self, data: list):
-        """Process the extracted message data."""
+    async def process_message(self, data: list, envelope: dict):
+        """Process the extracted message data.
+
+        ``envelope`` holds the chunk metadata (sync_run_id, sequence,
+        total_chunks, mode, deleted_ids); it is empty for messages without
+        an envelope.
+        """
         pass
 
     async def start_consuming(self):
@@ -46,16 +73,23 @@ class BaseConsumer(ABC):
 
     async def _on_message(self, message: IncomingMessage):
         async with message.process():
-            data = json.loads(message.body.decode())
-            items = data.get("data", data)
+            data = decode_body(message)
+            items = data.get("data", data) if isinstance(data, dict) else data
             if not isinstance(items, list):
                 items = [items]
+            envelope = {
+                key: data.get(key)
+                for key in ("sync_run_id", "sequence", "total_chunks", "mode", "deleted_ids")
+            } if isinstance(data, dict) else {}
             logger.info(
                 "Received message",
                 consumer=self.__class__.__name__,
                 item_count=len(items),
+                sync_run_id=envelope.get("sync_run_id"),
+                sequence=envelope.get("sequence"),
+                total_chunks=envelope.get("total_chunks"),
             )
-            await self.process_message(items)
+            await self.process_message(items, envelope)
 
     async def close(self):
         if self.connection:
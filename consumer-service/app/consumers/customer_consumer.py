@@ -17,9 +17,9 @@ class CustomerConsumer(BaseConsumer):
     def get_queue_name(self) -> str:
         return settings.rabbitmq_customer_queue
 
-    async def process_message(self, customers: list):
+    async def process_message(self, customers: list, envelope: dict):
         logger.info(
             "Processing customers",
             customer_count=len(customers),
         )
-        await self.aggregator.add_customers(customers)
+        await self.aggregator.add_customers(customers, envelope)
@@ -17,9 +17,9 @@ class ProductConsumer(BaseConsumer):
     def get_queue_name(self) -> str:
         return settings.rabbitmq_inventory_queue
 
-    async def process_message(self, products: list):
+    async def process_message(self, products: list, envelope: dict):
         logger.info(
             "Processing products",
             product_count=len(products),
         )
-        await self.aggregator.add_products(products)
+        await self.aggregator.add_products(products, envelope)
@@ -0,0 +1,227 @@
+"""
+Decoder for Jackson's Smile binary JSON format (application/x-jackson-smile).
+
+Covers everything Jackson's SmileGenerator writes: shared property names and
+string values, 7-bit encoded binary and raw binary, and big numbers. As for
+CBOR, BigDecimal values are returned as floats, matching what json.loads
+produces for the same message in JSON.
+"""
+
+import struct
+from decimal import Decimal
+
+HEADER = b":)\n"
+MAX_SHARED_REFERENCES = 1024
+# Only string values up to this many bytes are shared
+MAX_SHARED_VALUE_BYTES = 64
+
+_END_OBJECT = 0xFB
+_END_ARRAY = 0xF9
+_END_STRING = 0xFC
+_END_CONTENT = 0xFF
+
+
+class SmileDecodeError(ValueError):
+    pass
+
+
+def loads(data: bytes):
+    """Decode one Smile document into plain Python values."""
+    return _Decoder(data).decode()
+
+
+class _Decoder:
+    def __init__(self, data: bytes):
+        self.data = data
+        self.pos = 0
+        self.shared_names = None
+        self.shared_values = None
+
+    def decode(self):
+        if self.data[:3] == HEADER:
+            flags = self.data[3]
+            if flags >> 4 != 0:
+                raise SmileDecodeError(f"Unsupported Smile version {flags >> 4}")
+            self.shared_names = [] if flags & 0x01 else None
+            self.shared_values = [] if flags & 0x02 else None
+            self.pos = 4
+        else:
+            # Headerless content uses the generator defaults
+            self.shared_names = []
+        value = self._value(self._byte())
+        if self.pos < len(self.data) and self.data[self.pos] != _END_CONTENT:
+            raise SmileDecodeError(f"Trailing data at offset {self.pos}")
+        return value
+
+    def _byte(self) -> int:
+        if self.pos >= len(self.data):
+            raise SmileDecodeError("Unexpected end of Smile content")
+        token = self.data[self.pos]
+        self.pos += 1
+        return token
+
+    def _bytes(self, length: int) -> bytes:
+        end = self.pos + length
+        if end > len(self.data):
+            raise SmileDecodeError("Unexpected end of Smile content")
+        chunk = self.data[self.pos:end]
+        self.pos = end
+        return chunk
+
+    def _value(self, token: int):
+        if token < 0x20:
+            if token == 0:
+                raise SmileDecodeError("Invalid shared value reference 0")
+            return self._shared_value(token - 1)
+        if token < 0x40:
+            return self._simple_value(token)
+        if token < 0xC0:
+            if token < 0x60:
+                length, encoding = (token & 0x1F) + 1, "ascii"
+            elif token < 0x80:
+                length, encoding = (token & 0x1F) + 33, "ascii"
+            elif token < 0xA0:
+                length, encoding = (token & 0x1F) + 2, "utf-8"
+            else:
+                length, encoding = (token & 0x1F) + 34, "utf-8"
+            text = self._bytes(length).decode(encoding)
+            if self.shared_values is not None and length <= MAX_SHARED_VALUE_BYTES:
+                self._remember(self.shared_values, text)
+            return text
+        if token < 0xE0:
+            return _zigzag(token & 0x1F)
+        if token in (0xE0, 0xE4):
+            return self._until_end_marker().decode("utf-8")
+        if token == 0xE8:
+            return self._seven_bit_binary(self._vint())
+        if 0xEC <= token <= 0xEF:
+            return self._shared_value(((token & 0x03) << 8) | self._byte())
+        if token == 0xFD:
+            return self._bytes(self._vint())
+        if token == 0xF8:
+            return self._array()
+        if token == 0xFA:
+            return self._object()
+        raise SmileDecodeError(f"Unexpected Smile token 0x{token:02X} at offset {self.pos - 1}")
+
+    def _simple_value(self, token: int):
+        if token == 0x20:
+            return ""
+        if token == 0x21:
+            return None
+        if token == 0x22:
+            return False
+        if token == 0x23:
+            return True
+        if token in (0x24, 0x25):
+            return _zigzag(self._vint())
+        if token == 0x26:
+            return int.from_bytes(self._seven_bit_binary(self._vint()), "big", signed=True)
+        if token == 0x28:
+            return struct.unpack(">f", self._packed_bits(5, 32))[0]
+        if token == 0x29:
+            return struct.unpack(">d", self._packed_bits(10, 64))[0]
+        if token == 0x2A:
+            scale = _zigzag(self._vint())
+            # Big number bytes are always 7-bit encoded, even when raw binary is enabled
+            unscaled = int.from_bytes(self._seven_bit_binary(self._vint()), "big", signed=True)
+            return float(Decimal(unscaled).scaleb(-scale))
+        raise SmileDecodeError(f"Unexpected Smile token 0x{token:02X} at offset {self.pos - 1}")
+
+    def _array(self) -> list:
+        items = []
+        while True:
+            token = self._byte()
+            if token == _END_ARRAY:
+                return items
+            items.append(self._value(token))
+
+    def _object(self) -> dict:
+        result = {}
+        while True:
+            token = self._byte()
+            if token == _END_OBJECT:
+                return result
+            name = self._name(token)
+            result[name] = self._value(self._byte())
+
+    def _name(self, token: int) -> str:
+        if token == 0x20:
+            return ""
+        if 0x30 <= token <= 0x33:
+            return self._shared_name(((token & 0x03) << 8) | self._byte())
+        if 0x40 <= token < 0x80:
+            return self._shared_name(token & 0x3F)
+        if token == 0x34:
+            name = self._until_end_marker().decode("utf-8")
+        elif 0x80 <= token < 0xC0:
+            name = self._bytes((token & 0x3F) + 1).decode("ascii")
+        elif 0xC0 <= token < 0xF8:
+            name = self._bytes((token & 0x3F) + 2).decode("utf-8")
+        else:
+            raise SmileDecodeError(f"Unexpected Smile name token 0x{token:02X} at offset {self.pos - 1}")
+        if self.shared_names is not None:
+            self._remember(self.shared_names, name)
+        return name
+
+    def _shared_name(self, index: int) -> str:
+        if self.shared_names is None or index >= len(self.shared_names):
+            raise SmileDecodeError(f"Invalid shared name reference {index}")
+        return self.shared_names[index]
+
+    def _shared_value(self, index: int) -> str:
+        if self.shared_values is None or index >= len(self.shared_values):
+            raise SmileDecodeError(f"Invalid shared value reference {index}")
+        return self.shared_values[index]
+
+    @staticmethod
+    def _remember(table: list, text: str):
+        # Both sides start over once the table is full
+        if len(table) >= MAX_SHARED_REFERENCES:
+            table.clear()
+        table.append(text)
+
+    def _until_end_marker(self) -> bytes:
+        end = self.data.find(bytes([_END_STRING]), self.pos)
+        if end < 0:
+            raise SmileDecodeError("Unterminated Smile string")
+        chunk = self.data[self.pos:end]
+        self.pos = end + 1
+        return chunk
+
+    def _vint(self) -> int:
+        """Unsigned variable-length int: 7 bits per byte, the last byte (high bit set) adds 6."""
+        value = 0
+        while True:
+            byte = self._byte()
+            if byte & 0x80:
+                return (value << 6) | (byte & 0x3F)
+            value = (value << 7) | byte
+
+    def _packed_bits(self, length: int, bits: int) -> bytes:
+        value = 0
+        for byte in self._bytes(length):
+            value = (value << 7) | (byte & 0x7F)
+        return (value & ((1 << bits) - 1)).to_bytes(bits // 8, "big")
+
+    def _seven_bit_binary(self, length: int) -> bytes:
+        """Every 7 bytes are spread over 8 bytes of 7 bits; the last byte of a partial group holds the leftover bits."""
+        out = bytearray()
+        full_groups, remainder = divmod(length, 7)
+        for _ in range(full_groups):
+            value = 0
+            for byte in self._bytes(8):
+                value = (value << 7) | (byte & 0x7F)
+            out += value.to_bytes(7, "big")
+        if remainder:
+            encoded = self._bytes(remainder + 1)
+            value = 0
+            for byte in encoded[:-1]:
+                value = (value << 7) | (byte & 0x7F)
+            value = (value << remainder) | (encoded[-1] & ((1 << remainder) - 1))
+            out += value.to_bytes(remainder, "big")
+        return bytes(out)
+
+
+def _zigzag(value: int) -> int:
+    return (value >> 1) ^ -(value & 1)
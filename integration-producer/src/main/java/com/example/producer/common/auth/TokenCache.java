@@ -0,0 +1,223 @@
+package com.example.producer.common.auth;
+
+import com.example.producer.common.model.TokenResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier bearer token cache: a local volatile holder in front of the shared
+ * Redis key. Only one thread per process fetches a new token at a time; others
+ * wait for it instead of stampeding the auth endpoint. Tokens are refreshed on
+ * {@code refreshExecutor} once they enter the refresh-ahead window.
+ */
+public class TokenCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenCache.class);
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(55);
+    private static final Duration EXPIRY_MARGIN = Duration.ofSeconds(30);
+
+    private final String name;
+    private final String redisKey;
+    private final StringRedisTemplate redisTemplate;
+    private final Supplier<TokenResponse> tokenFetcher;
+    private final Duration refreshAhead;
+    private final Executor refreshExecutor;
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+    private final Timer fetchTimer;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final AtomicBoolean backgroundRefresh = new AtomicBoolean();
+    private volatile CachedToken current;
+
+    public TokenCache(String name, String redisKey, StringRedisTemplate redisTemplate,
+                      Supplier<TokenResponse> tokenFetcher, Duration refreshAhead, Executor refreshExecutor,
+                      MeterRegistry meterRegistry) {
+        this.name = name;
+        this.redisKey = redisKey;
+        this.redisTemplate = redisTemplate;
+        this.tokenFetcher = tokenFetcher;
+        this.refreshAhead = refreshAhead;
+        this.refreshExecutor = refreshExecutor;
+
+        String cache = name.toLowerCase();
+        this.localHits = meterRegistry.counter("producer.token.requests", "cache", cache, "result", "local");
+        this.redisHits = meterRegistry.counter("producer.token.requests", "cache", cache, "result", "redis");
+        this.misses = meterRegistry.counter("producer.token.requests", "cache", cache, "result", "fetched");
+        this.fetchTimer = meterRegistry.timer("producer.token.fetch", "cache", cache);
+    }
+
+    public String getToken() {
+        CachedToken token = current;
+        Instant now = Instant.now();
+        if (token != null && token.isUsable(now)) {
+            if (token.isRefreshDue(now)) {
+                refreshInBackground();
+            }
+            localHits.increment();
+            return token.value();
+        }
+        return loadOrFetch(token).value();
+    }
+
+    /**
+     * Drops {@code token} from both tiers if it is still the cached one, e.g.
+     * after the upstream rejected it with 401.
+     */
+    public void invalidate(String token) {
+        refreshLock.lock();
+        try {
+            CachedToken cached = current;
+            if (cached != null && cached.value().equals(token)) {
+                current = null;
+            }
+            if (token.equals(redisTemplate.opsForValue().get(redisKey))) {
+                redisTemplate.delete(redisKey);
+            }
+            log.info("Invalidated {} token", name);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Runs {@code call} with the current token, retrying once with a fresh token
+     * if the upstream answers 401.
+     */
+    public <T> T withToken(Function<String, T> call) {
+        String token = getToken();
+        try {
+            return call.apply(token);
+        } catch (HttpClientErrorException.Unauthorized e) {
+            log.warn("{} rejected cached token, refreshing and retrying", name);
+            invalidate(token);
+            return call.apply(getToken());
+        }
+    }
+
+    private CachedToken loadOrFetch(CachedToken stale) {
+        refreshLock.lock();
+        try {
+            CachedToken token = current;
+            Instant now = Instant.now();
+            if (token != stale && token != null && token.isUsable(now)) {
+                localHits.increment();
+                return token;
+            }
+
+            token = loadFromRedis(now);
+            if (token == null || token.isRefreshDue(now)) {
+                misses.increment();
+                token = fetchAndStore();
+            } else {
+                redisHits.increment();
+            }
+            current = token;
+            return token;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refreshInBackground() {
+        if (!backgroundRefresh.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(this::refresh);
+        } catch (RejectedExecutionException e) {
+            backgroundRefresh.set(false);
+            log.warn("Background refresh of {} token rejected; retrying on the next request", name);
+        }
+    }
+
+    private void refresh() {
+        refreshLock.lock();
+        try {
+            Instant now = Instant.now();
+            CachedToken token = current;
+            if (token != null && !token.isRefreshDue(now)) {
+                return;
+            }
+            // Redis holds our own token until another replica stores a newer one
+            CachedToken shared = loadFromRedis(now);
+            if (shared != null && (token == null || shared.expiresAt().isAfter(token.expiresAt()))) {
+                redisHits.increment();
+                current = shared;
+            } else {
+                misses.increment();
+                current = fetchAndStore();
+            }
+            log.debug("Proactively refreshed {} token", name);
+        } catch (Exception e) {
+            log.warn("Background refresh of {} token failed", name, e);
+        } finally {
+            refreshLock.unlock();
+            backgroundRefresh.set(false);
+        }
+    }
+
+    private CachedToken loadFromRedis(Instant now) {
+        String value = redisTemplate.opsForValue().get(redisKey);
+        if (value == null) {
+            return null;
+        }
+        Long ttlSeconds = redisTemplate.getExpire(redisKey, TimeUnit.SECONDS);
+        if (ttlSeconds == null || ttlSeconds <= 0) {
+            return null;
+        }
+        log.debug("Using {} token from Redis", name);
+        return CachedToken.of(value, now, now.plusSeconds(ttlSeconds), refreshAhead);
+    }
+
+    private CachedToken fetchAndStore() {
+        log.info("Fetching new {} token", name);
+        TokenResponse response = fetchTimer.record(tokenFetcher);
+
+        Duration lifetime = response.getExpiresIn() != null && response.getExpiresIn() > 0
+            ? Duration.ofSeconds(response.getExpiresIn())
+            : DEFAULT_TTL;
+        Duration usable = lifetime.compareTo(EXPIRY_MARGIN.multipliedBy(2)) > 0 ? lifetime.minus(EXPIRY_MARGIN) : lifetime;
+
+        redisTemplate.opsForValue().set(redisKey, response.getAccessToken(), usable);
+        Instant now = Instant.now();
+        return CachedToken.of(response.getAccessToken(), now, now.plus(usable), refreshAhead);
+    }
+
+    private record CachedToken(String value, Instant expiresAt, Instant refreshAt) {
+
+        /**
+         * Refreshes {@code refreshAhead} before expiry, but never earlier than
+         * halfway through the remaining lifetime of a short-lived token.
+         */
+        static CachedToken of(String value, Instant now, Instant expiresAt, Duration refreshAhead) {
+            Duration halfRemaining = Duration.between(now, expiresAt).dividedBy(2);
+            Duration ahead = refreshAhead.compareTo(halfRemaining) < 0 ? refreshAhead : halfRemaining;
+            return new CachedToken(value, expiresAt, expiresAt.minus(ahead));
+        }
+
+        boolean isUsable(Instant now) {
+            return now.isBefore(expiresAt);
+        }
+
+        boolean isRefreshDue(Instant now) {
+            return !now.isBefore(refreshAt);
+        }
+    }
+}
@@ -1,17 +1,30 @@
 package com.example.producer.common.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
+/**
+ * Executors for callback work, fetch-all sync pipelines, page fetch fan-out,
+ * publisher confirm handling, bulk SOAP calls and background token refresh. With
+ * {@code spring.threads.virtual.enabled=true} on a Java 21+ runtime they are
+ * backed by virtual threads (as are Tomcat and the default {@code @Async}
+ * executor); otherwise they are bounded platform thread pools.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
     @Bean(name = "callbackExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
     public Executor callbackExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(4);
@@ -21,4 +34,117 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    @Bean(name = "callbackExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualCallbackExecutor() {
+        return virtualExecutor("callback-");
+    }
+
+    @Bean(name = "syncExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Executor syncExecutor(@Value("${sync.max-concurrent-runs:4}") int maxConcurrentRuns) {
+        // One thread per pipeline of every run SyncCoordinator admits; the queue only absorbs
+        // a new run admitted while the previous run's threads are returning to the pool
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentRuns * 2);
+        executor.setMaxPoolSize(maxConcurrentRuns * 2);
+        executor.setQueueCapacity(maxConcurrentRuns * 2);
+        executor.setThreadNamePrefix("sync-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "syncExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualSyncExecutor() {
+        // Concurrent runs are capped by SyncCoordinator's semaphore
+        return virtualExecutor("sync-");
+    }
+
+    @Bean(name = "pageFetchExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Executor pageFetchExecutor(@Value("${sync.executor.pool-size:8}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(poolSize * 2);
+        executor.setThreadNamePrefix("page-fetch-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "pageFetchExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualPageFetchExecutor() {
+        // In-flight pages are already capped by PaginatedFetcher's semaphore
+        return virtualExecutor("page-fetch-");
+    }
+
+    @Bean(name = "publishConfirmExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Executor publishConfirmExecutor(@Value("${publisher.confirm-threads:2}") int threads,
+                                           @Value("${publisher.window:256}") int window) {
+        // At most one confirm per in-flight message is pending, so a window-sized queue rarely fills
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(window);
+        executor.setThreadNamePrefix("publish-confirm-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "publishConfirmExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualPublishConfirmExecutor() {
+        return virtualExecutor("publish-confirm-");
+    }
+
+    @Bean(name = "soapExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Executor soapExecutor(@Value("${crm.soap.bulk.concurrency:32}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(concurrency * 2);
+        executor.setThreadNamePrefix("soap-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "soapExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualSoapExecutor() {
+        // Concurrent calls are capped by CrmService's semaphore
+        return virtualExecutor("soap-");
+    }
+
+    @Bean(name = "tokenRefreshExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Executor tokenRefreshExecutor() {
+        // Each token cache has at most one refresh in flight; a rejected one is retried on the next request
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(2);
+        executor.setThreadNamePrefix("token-refresh-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "tokenRefreshExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualTokenRefreshExecutor() {
+        return virtualExecutor("token-refresh-");
+    }
+
+    private SimpleAsyncTaskExecutor virtualExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        return executor;
+    }
 }
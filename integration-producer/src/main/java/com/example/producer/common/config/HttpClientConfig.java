@@ -0,0 +1,151 @@
+package com.example.producer.common.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.ws.transport.http.HttpComponents5MessageSender;
+
+import java.time.Duration;
+
+/**
+ * One pooled Apache HttpClient per upstream, so a burst of CRM page fetches
+ * cannot starve Inventory or CRM SOAP of connections (and vice versa). Responses are
+ * transparently gzip-decoded by the client's content-compression support.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${http-client.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${http-client.read-timeout:10s}")
+    private Duration readTimeout;
+
+    @Value("${http-client.connection-request-timeout:5s}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${http-client.idle-eviction:30s}")
+    private Duration idleEviction;
+
+    @Value("${http-client.connection-ttl:5m}")
+    private Duration connectionTtl;
+
+    @Bean
+    public PoolingHttpClientConnectionManager crmConnectionManager(
+        @Value("${http-client.crm.max-connections:50}") int maxConnections) {
+        return connectionManager(maxConnections);
+    }
+
+    @Bean
+    public PoolingHttpClientConnectionManager inventoryConnectionManager(
+        @Value("${http-client.inventory.max-connections:50}") int maxConnections) {
+        return connectionManager(maxConnections);
+    }
+
+    @Bean
+    public PoolingHttpClientConnectionManager crmSoapConnectionManager(
+        @Value("${http-client.crm-soap.max-connections:32}") int maxConnections) {
+        return connectionManager(maxConnections);
+    }
+
+    @Bean
+    public CloseableHttpClient crmHttpClient(
+        @Qualifier("crmConnectionManager") PoolingHttpClientConnectionManager connectionManager) {
+        return httpClient(connectionManager);
+    }
+
+    @Bean
+    public CloseableHttpClient inventoryHttpClient(
+        @Qualifier("inventoryConnectionManager") PoolingHttpClientConnectionManager connectionManager) {
+        return httpClient(connectionManager);
+    }
+
+    /**
+     * Spring WS sets Content-Length and Transfer-Encoding itself, so the client
+     * must strip them before HttpClient adds its own.
+     */
+    @Bean
+    public CloseableHttpClient crmSoapHttpClient(
+        @Qualifier("crmSoapConnectionManager") PoolingHttpClientConnectionManager connectionManager) {
+        return httpClientBuilder(connectionManager)
+            .addRequestInterceptorFirst(new HttpComponents5MessageSender.RemoveSoapHeadersInterceptor())
+            .build();
+    }
+
+    @Bean
+    public RestTemplate crmRestTemplate(RestTemplateBuilder builder,
+                                        @Qualifier("crmHttpClient") CloseableHttpClient httpClient) {
+        return builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient)).build();
+    }
+
+    @Bean
+    public RestTemplate inventoryRestTemplate(RestTemplateBuilder builder,
+                                              @Qualifier("inventoryHttpClient") CloseableHttpClient httpClient) {
+        return builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient)).build();
+    }
+
+    @Bean
+    public MeterBinder crmConnectionPoolMetrics(
+        @Qualifier("crmConnectionManager") PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "crm");
+    }
+
+    @Bean
+    public MeterBinder inventoryConnectionPoolMetrics(
+        @Qualifier("inventoryConnectionManager") PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "inventory");
+    }
+
+    @Bean
+    public MeterBinder crmSoapConnectionPoolMetrics(
+        @Qualifier("crmSoapConnectionManager") PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "crm-soap");
+    }
+
+    private PoolingHttpClientConnectionManager connectionManager(int maxConnections) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.of(connectTimeout))
+            .setSocketTimeout(Timeout.of(readTimeout))
+            .setTimeToLive(TimeValue.of(connectionTtl))
+            .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+            .build();
+
+        return PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(connectionConfig)
+            .build();
+    }
+
+    private CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+        return httpClientBuilder(connectionManager).build();
+    }
+
+    private HttpClientBuilder httpClientBuilder(PoolingHttpClientConnectionManager connectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+            .setResponseTimeout(Timeout.of(readTimeout))
+            .build();
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(idleEviction));
+    }
+}
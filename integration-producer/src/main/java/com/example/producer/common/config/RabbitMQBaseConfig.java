@@ -1,13 +1,20 @@
 package com.example.producer.common.config;
 
+import com.example.producer.common.messaging.JacksonBinaryMessageConverter;
+import com.example.producer.common.messaging.MessageFormat;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.postprocessor.DelegatingDecompressingPostProcessor;
+import org.springframework.amqp.support.postprocessor.GZipPostProcessor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,6 +22,11 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class RabbitMQBaseConfig {
 
+    private static final String[] TRUSTED_PACKAGES = {
+        "com.example.producer.integrations.crm.model",
+        "com.example.producer.integrations.inventory.model"
+    };
+
     @Value("${rabbitmq.exchanges.integration}")
     private String exchangeName;
 
@@ -23,18 +35,57 @@ public class RabbitMQBaseConfig {
         return new DirectExchange(exchangeName);
     }
 
+    @Value("${rabbitmq.message-format:json}")
+    private MessageFormat messageFormat;
+
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        return new Jackson2JsonMessageConverter(objectMapper);
+    public MessageConverter messageConverter() {
+        return createMessageConverter(messageFormat);
+    }
+
+    /**
+     * Encodes outgoing messages in the given format and decodes incoming ones by
+     * their content type, whichever format they were sent in. Compression is
+     * applied separately by the template's post-processors.
+     */
+    public static MessageConverter createMessageConverter(MessageFormat outboundFormat) {
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter(objectMapper(new ObjectMapper()));
+        JacksonBinaryMessageConverter smile = new JacksonBinaryMessageConverter(
+            objectMapper(new SmileMapper()), MessageFormat.SMILE.contentType(), TRUSTED_PACKAGES);
+        JacksonBinaryMessageConverter cbor = new JacksonBinaryMessageConverter(
+            objectMapper(new CBORMapper()), MessageFormat.CBOR.contentType(), TRUSTED_PACKAGES);
+
+        MessageConverter outbound = switch (outboundFormat) {
+            case JSON, JSON_GZIP -> json;
+            case SMILE -> smile;
+            case CBOR -> cbor;
+        };
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(outbound);
+        converter.addDelegate(MessageFormat.JSON.contentType(), json);
+        converter.addDelegate(MessageFormat.SMILE.contentType(), smile);
+        converter.addDelegate(MessageFormat.CBOR.contentType(), cbor);
+        return converter;
     }
 
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
-        template.setMessageConverter(jsonMessageConverter());
+        template.setMessageConverter(messageConverter());
+        if (messageFormat.isCompressed()) {
+            // Copy properties so a retried publish is not compressed twice
+            GZipPostProcessor gzip = new GZipPostProcessor();
+            gzip.setCopyProperties(true);
+            template.setBeforePublishPostProcessors(gzip);
+        }
+        template.setAfterReceivePostProcessors(new DelegatingDecompressingPostProcessor());
+        // Unroutable messages come back as returns instead of being dropped
+        template.setMandatory(true);
         return template;
     }
+
+    private static ObjectMapper objectMapper(ObjectMapper objectMapper) {
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return objectMapper;
+    }
 }
@@ -1,6 +1,12 @@
 package com.example.producer.common.controller;
 
+import com.example.producer.common.sync.SyncBusyException;
+import com.example.producer.common.sync.SyncCoordinator;
+import com.example.producer.common.sync.SyncJob;
+import com.example.producer.common.sync.SyncResult;
 import com.example.producer.integrations.crm.model.AddCustomerSoapResponse;
+import com.example.producer.integrations.crm.model.BulkAddCustomersResponse;
+import com.example.producer.integrations.crm.model.NewCustomer;
 import com.example.producer.integrations.crm.service.CrmService;
 import com.example.producer.integrations.inventory.service.InventoryService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -8,12 +14,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 @RestController
 @RequestMapping("/api/callback")
@@ -22,43 +41,121 @@ public class CallbackController {
 
     private static final Logger log = LoggerFactory.getLogger(CallbackController.class);
 
+    private static final Duration SSE_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration SSE_TIMEOUT = Duration.ofMinutes(30);
+    private static final Duration BUSY_RETRY_AFTER = Duration.ofSeconds(5);
+
     private final CrmService crmService;
     private final InventoryService inventoryService;
+    private final SyncCoordinator syncCoordinator;
+    private final TaskScheduler taskScheduler;
+    private final int maxSoapBatchSize;
 
-    public CallbackController(CrmService crmService, InventoryService inventoryService) {
+    public CallbackController(CrmService crmService, InventoryService inventoryService,
+                              SyncCoordinator syncCoordinator, TaskScheduler taskScheduler,
+                              @Value("${crm.soap.bulk.max-batch-size:10000}") int maxSoapBatchSize) {
         this.crmService = crmService;
         this.inventoryService = inventoryService;
+        this.syncCoordinator = syncCoordinator;
+        this.taskScheduler = taskScheduler;
+        this.maxSoapBatchSize = maxSoapBatchSize;
     }
 
-    @Operation(summary = "Fetch all data", description = "Fetches customers from CRM and products from Inventory, then publishes both to RabbitMQ")
-    @ApiResponse(responseCode = "200", description = "Data fetched and published successfully")
+    @Operation(summary = "Fetch all data", description = "Fetches customers from CRM and products from Inventory concurrently, then publishes both to RabbitMQ. With async=true, returns a job id immediately")
+    @ApiResponse(responseCode = "200", description = "Both pipelines finished; status is completed, partial or failed")
+    @ApiResponse(responseCode = "202", description = "Sync job started (async mode)")
+    @ApiResponse(responseCode = "503", description = "Too many sync runs in progress; retry after the Retry-After delay")
     @PostMapping("/fetch-all")
-    public ResponseEntity<Map<String, Object>> fetchAll() {
-        log.info("Callback: fetching all data");
+    public ResponseEntity<Map<String, Object>> fetchAll(@RequestParam(defaultValue = "false") boolean async) {
+        log.info("Callback: fetching all data (async={})", async);
+        try {
+            return async ? submitFetchAll() : runFetchAll();
+        } catch (SyncBusyException e) {
+            log.warn("Rejected fetch-all: {}", e.getMessage());
+            Map<String, Object> result = new HashMap<>();
+            result.put("status", "busy");
+            result.put("error", e.getMessage());
+            result.put("timestamp", Instant.now().toString());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(BUSY_RETRY_AFTER.toSeconds()))
+                .body(result);
+        }
+    }
 
-        int customersPublished = crmService.fetchAndPublishCustomers(0, 100);
-        int productsPublished = inventoryService.fetchAndPublishProducts(0, 100);
+    private ResponseEntity<Map<String, Object>> submitFetchAll() {
+        SyncJob job = syncCoordinator.submitSyncAll();
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", "accepted");
+        result.put("job_id", job.getJobId());
+        result.put("timestamp", Instant.now().toString());
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/callback/jobs/" + job.getJobId()))
+            .body(result);
+    }
+
+    private ResponseEntity<Map<String, Object>> runFetchAll() {
+        long start = System.currentTimeMillis();
+        Map<String, SyncResult> results = syncCoordinator.syncAll();
 
         Map<String, Object> result = new HashMap<>();
-        result.put("status", "completed");
-        result.put("customers_published", customersPublished);
-        result.put("products_published", productsPublished);
+        result.put("status", SyncJob.stateOf(results.values()).name().toLowerCase());
+        result.put("customers_published", results.get("customers").recordsPublished());
+        result.put("products_published", results.get("products").recordsPublished());
+        result.put("results", results);
+        result.put("duration_ms", System.currentTimeMillis() - start);
         result.put("timestamp", Instant.now().toString());
 
         return ResponseEntity.ok(result);
     }
 
+    @Operation(summary = "Get sync job", description = "Returns progress and per-source results of an async fetch-all job")
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<SyncJob.Snapshot> getJob(@PathVariable String jobId) {
+        return syncCoordinator.getJob(jobId)
+            .map(job -> ResponseEntity.ok(job.snapshot()))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Stream sync job progress", description = "Server-sent events with a job snapshot every second until the job finishes")
+    @GetMapping(path = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String jobId) {
+        Optional<SyncJob> job = syncCoordinator.getJob(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT.toMillis());
+        AtomicReference<ScheduledFuture<?>> task = new AtomicReference<>();
+        task.set(taskScheduler.scheduleAtFixedRate(() -> {
+            SyncJob current = job.get();
+            try {
+                emitter.send(SseEmitter.event().name(current.isDone() ? "done" : "progress").data(current.snapshot()));
+                if (current.isDone()) {
+                    emitter.complete();
+                    cancel(task);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                cancel(task);
+            }
+        }, SSE_INTERVAL));
+        emitter.onCompletion(() -> cancel(task));
+        emitter.onTimeout(() -> cancel(task));
+        return ResponseEntity.ok(emitter);
+    }
+
     @Operation(summary = "Fetch customers", description = "Fetches customers from CRM service and publishes to RabbitMQ customer queue")
     @ApiResponse(responseCode = "200", description = "Customers fetched and published successfully")
     @PostMapping("/fetch-customers")
     public ResponseEntity<Map<String, Object>> fetchCustomers() {
         log.info("Callback: fetching customers");
 
-        int count = crmService.fetchAndPublishCustomers(0, 100);
+        SyncResult sync = crmService.syncCustomers();
 
         Map<String, Object> result = new HashMap<>();
-        result.put("status", "completed");
-        result.put("customers_published", count);
+        result.put("status", sync.isSuccess() ? "completed" : "failed");
+        result.put("customers_published", sync.recordsPublished());
+        result.put("duration_ms", sync.durationMs());
         result.put("timestamp", Instant.now().toString());
 
         return ResponseEntity.ok(result);
@@ -70,11 +167,12 @@ public class CallbackController {
     public ResponseEntity<Map<String, Object>> fetchProducts() {
         log.info("Callback: fetching products");
 
-        int count = inventoryService.fetchAndPublishProducts(0, 100);
+        SyncResult sync = inventoryService.syncProducts();
 
         Map<String, Object> result = new HashMap<>();
-        result.put("status", "completed");
-        result.put("products_published", count);
+        result.put("status", sync.isSuccess() ? "completed" : "failed");
+        result.put("products_published", sync.recordsPublished());
+        result.put("duration_ms", sync.durationMs());
         result.put("timestamp", Instant.now().toString());
 
         return ResponseEntity.ok(result);
@@ -93,4 +191,24 @@ public class CallbackController {
 
         return ResponseEntity.ok(response);
     }
+
+    @Operation(summary = "Add customers via SOAP",
+        description = "Creates customers with concurrent SOAP AddCustomer calls and returns per-customer results in request order")
+    @ApiResponse(responseCode = "400", description = "More customers than crm.soap.bulk.max-batch-size")
+    @PostMapping("/add-customers-soap")
+    public ResponseEntity<BulkAddCustomersResponse> addCustomersViaSoap(@RequestBody List<NewCustomer> customers) {
+        log.info("Callback: adding {} customers via SOAP", customers.size());
+
+        if (customers.size() > maxSoapBatchSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(crmService.addCustomersViaSoap(customers));
+    }
+
+    private static void cancel(AtomicReference<ScheduledFuture<?>> task) {
+        ScheduledFuture<?> future = task.get();
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
 }
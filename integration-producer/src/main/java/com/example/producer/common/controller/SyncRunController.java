@@ -0,0 +1,31 @@
+package com.example.producer.common.controller;
+
+import com.example.producer.common.scheduler.SyncRun;
+import com.example.producer.common.scheduler.SyncRunHistory;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/sync")
+@Tag(name = "Sync", description = "Scheduled sync run history")
+public class SyncRunController {
+
+    private final SyncRunHistory history;
+
+    public SyncRunController(SyncRunHistory history) {
+        this.history = history;
+    }
+
+    @Operation(summary = "Recent sync runs", description = "Scheduled sync runs across all instances, newest first")
+    @GetMapping("/runs")
+    public ResponseEntity<List<SyncRun>> recentRuns(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(history.recent(Math.max(1, limit)));
+    }
+}
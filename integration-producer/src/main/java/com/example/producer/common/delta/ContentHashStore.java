@@ -0,0 +1,82 @@
+package com.example.producer.common.delta;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Last published content hash of every record, one Redis hash per source
+ * ({@code sync:hashes:<source>}, field = record id).
+ */
+@Component
+public class ContentHashStore {
+
+    private static final String KEY_PREFIX = "sync:hashes:";
+
+    // Sorted properties keep the hash stable if model fields are reordered
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+        .addModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+        .build();
+
+    private final StringRedisTemplate redisTemplate;
+
+    public ContentHashStore(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public <T> DeltaRun<T> begin(String source, Function<T, String> idOf) {
+        return new DeltaRun<>(this, source, idOf);
+    }
+
+    String hash(Object record) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] sha = digest.digest(objectMapper.writeValueAsBytes(record));
+            // 128 bits is plenty to detect changes and halves the Redis footprint
+            return HexFormat.of().formatHex(sha, 0, 16);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to hash record", e);
+        }
+    }
+
+    List<String> get(String source, List<String> ids) {
+        return hashOps().multiGet(KEY_PREFIX + source, ids);
+    }
+
+    void put(String source, Map<String, String> hashes) {
+        if (!hashes.isEmpty()) {
+            hashOps().putAll(KEY_PREFIX + source, hashes);
+        }
+    }
+
+    void remove(String source, Collection<String> ids) {
+        if (!ids.isEmpty()) {
+            hashOps().delete(KEY_PREFIX + source, ids.toArray());
+        }
+    }
+
+    Set<String> ids(String source) {
+        return hashOps().keys(KEY_PREFIX + source);
+    }
+
+    private HashOperations<String, String, String> hashOps() {
+        return redisTemplate.opsForHash();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.producer.common.delta;
+
+import com.example.producer.common.messaging.PublishTracker;
+import com.example.producer.common.pagination.PaginatedFetcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * One delta sync run over a source. Only records whose content hash differs
+ * from the last confirmed publish are sent; hashes are committed once the
+ * broker confirms the chunk, so a failed publish is retried on the next run.
+ *
+ * <p>Delta chunks are numbered in publish order. The run ends with a tombstone
+ * message listing ids that were not seen, which also carries the total chunk
+ * count, so consumers know when they have every chunk.
+ */
+public class DeltaRun<T> {
+
+    private final ContentHashStore store;
+    private final String source;
+    private final Function<T, String> idOf;
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    DeltaRun(ContentHashStore store, String source, Function<T, String> idOf) {
+        this.store = store;
+        this.source = source;
+        this.idOf = idOf;
+    }
+
+    /**
+     * Wraps {@code sender} so each fetched chunk is reduced to its inserts and updates.
+     */
+    public PaginatedFetcher.ChunkPublisher<T> changesOnly(DeltaSender<T> sender, PublishTracker tracker,
+                                                          LongConsumer onPublished) {
+        return (records, chunk) -> {
+            List<String> ids = records.stream().map(idOf).toList();
+            seen.addAll(ids);
+            List<String> previous = store.get(source, ids);
+
+            List<T> changed = new ArrayList<>();
+            Map<String, String> hashes = new HashMap<>();
+            for (int i = 0; i < records.size(); i++) {
+                String hash = store.hash(records.get(i));
+                if (!hash.equals(previous.get(i))) {
+                    changed.add(records.get(i));
+                    hashes.put(ids.get(i), hash);
+                }
+            }
+            if (changed.isEmpty()) {
+                return;
+            }
+
+            PaginatedFetcher.Chunk deltaChunk = new PaginatedFetcher.Chunk(sequence.getAndIncrement(), null);
+            tracker.track(sender.send(changed, List.of(), deltaChunk)
+                .thenRun(() -> store.put(source, hashes)), changed.size(), onPublished);
+        };
+    }
+
+    /**
+     * Publishes the closing tombstone message. Must only be called after every
+     * page was fetched, otherwise unseen records would be reported as deleted.
+     */
+    public void finish(DeltaSender<T> sender, PublishTracker tracker) {
+        List<String> deleted = store.ids(source).stream()
+            .filter(id -> !seen.contains(id))
+            .toList();
+        int last = sequence.getAndIncrement();
+        PaginatedFetcher.Chunk closing = new PaginatedFetcher.Chunk(last, last + 1);
+        tracker.track(sender.send(List.of(), deleted, closing)
+            .thenRun(() -> store.remove(source, deleted)), 0, count -> {});
+    }
+
+    @FunctionalInterface
+    public interface DeltaSender<T> {
+        CompletableFuture<Void> send(List<T> changed, List<String> deletedIds, PaginatedFetcher.Chunk chunk);
+    }
+}
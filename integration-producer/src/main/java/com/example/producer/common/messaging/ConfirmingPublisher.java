@@ -0,0 +1,163 @@
+package com.example.producer.common.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes with correlated publisher confirms without waiting on each message.
+ * At most {@code window} messages are unconfirmed at once; callers block in
+ * {@link #publish} when the window is full. Nacks, send failures and confirm
+ * timeouts are retried with the same message id, so delivery is at-least-once.
+ * Unroutable (returned) messages and unexpected send errors fail immediately.
+ *
+ * <p>Confirms and delayed retries are handled on the {@code publishConfirmExecutor},
+ * so work chained on the returned futures never runs on (and stalls) the AMQP
+ * connection thread, and blocking re-sends stay off the common pool.
+ */
+@Component
+public class ConfirmingPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfirmingPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final Executor confirmExecutor;
+    private final Semaphore window;
+    private final int maxRetries;
+    private final Duration confirmTimeout;
+    private final Duration retryBackoff;
+
+    private final Counter published;
+    private final Counter acked;
+    private final Counter nacked;
+    private final Counter returned;
+    private final Counter retried;
+    private final Timer confirmLatency;
+
+    public ConfirmingPublisher(RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry,
+                               @Qualifier("publishConfirmExecutor") Executor confirmExecutor,
+                               @Value("${publisher.window:256}") int windowSize,
+                               @Value("${publisher.max-retries:3}") int maxRetries,
+                               @Value("${publisher.confirm-timeout:10s}") Duration confirmTimeout,
+                               @Value("${publisher.retry-backoff:200ms}") Duration retryBackoff) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.confirmExecutor = confirmExecutor;
+        this.window = new Semaphore(windowSize);
+        this.maxRetries = maxRetries;
+        this.confirmTimeout = confirmTimeout;
+        this.retryBackoff = retryBackoff;
+
+        this.published = meterRegistry.counter("producer.publish.messages");
+        this.acked = meterRegistry.counter("producer.publish.confirms", "outcome", "ack");
+        this.nacked = meterRegistry.counter("producer.publish.confirms", "outcome", "nack");
+        this.returned = meterRegistry.counter("producer.publish.confirms", "outcome", "returned");
+        this.retried = meterRegistry.counter("producer.publish.retries");
+        this.confirmLatency = Timer.builder("producer.publish.confirm.latency")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        Gauge.builder("producer.publish.in.flight", window, w -> windowSize - w.availablePermits())
+            .register(meterRegistry);
+    }
+
+    /**
+     * Sends {@code payload} and returns a future completed once the broker
+     * confirms it, or completed exceptionally with a {@link PublishException}
+     * once retries are exhausted.
+     */
+    public CompletableFuture<Void> publish(String exchange, String routingKey, Object payload) {
+        Message message = rabbitTemplate.getMessageConverter().toMessage(payload, new MessageProperties());
+        if (message.getMessageProperties().getMessageId() == null) {
+            message.getMessageProperties().setMessageId(UUID.randomUUID().toString());
+        }
+
+        try {
+            window.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PublishException("Interrupted waiting for a publish window slot", e);
+        }
+
+        Outbound outbound = new Outbound(exchange, routingKey, message, new CompletableFuture<>());
+        outbound.result().whenComplete((ignored, error) -> window.release());
+        send(outbound, 0);
+        return outbound.result();
+    }
+
+    private void send(Outbound outbound, int attempt) {
+        CorrelationData correlation = new CorrelationData(outbound.messageId() + "-" + attempt);
+        long startNanos = System.nanoTime();
+        try {
+            rabbitTemplate.send(outbound.exchange(), outbound.routingKey(), outbound.message(), correlation);
+        } catch (AmqpException e) {
+            retryOrFail(outbound, attempt, "send failed: " + e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            // Not a broker or connection problem, so resending would fail the same way
+            outbound.result().completeExceptionally(new PublishException(
+                "Message " + outbound.messageId() + " could not be sent", e));
+            return;
+        }
+        published.increment();
+
+        // Confirms arrive on the connection's thread; everything chained on the result runs off it
+        correlation.getFuture()
+            .orTimeout(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .whenCompleteAsync((confirm, error) -> {
+                confirmLatency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                ReturnedMessage returnedMessage = correlation.getReturned();
+                if (error != null) {
+                    retryOrFail(outbound, attempt, "no confirm within " + confirmTimeout);
+                } else if (returnedMessage != null) {
+                    returned.increment();
+                    outbound.result().completeExceptionally(new PublishException(
+                        "Message " + outbound.messageId() + " returned: " + returnedMessage.getReplyText()));
+                } else if (confirm.isAck()) {
+                    acked.increment();
+                    outbound.result().complete(null);
+                } else {
+                    nacked.increment();
+                    retryOrFail(outbound, attempt, "nack: " + confirm.getReason());
+                }
+            }, confirmExecutor);
+    }
+
+    private void retryOrFail(Outbound outbound, int attempt, String reason) {
+        if (attempt >= maxRetries) {
+            outbound.result().completeExceptionally(new PublishException(
+                "Message " + outbound.messageId() + " not confirmed after " + (attempt + 1) + " attempts, " + reason));
+            return;
+        }
+
+        retried.increment();
+        log.warn("Retrying publish of message {} to {} ({})", outbound.messageId(), outbound.routingKey(), reason);
+        long delayMillis = retryBackoff.toMillis() * (attempt + 1);
+        CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS, confirmExecutor)
+            .execute(() -> send(outbound, attempt + 1));
+    }
+
+    private record Outbound(String exchange, String routingKey, Message message, CompletableFuture<Void> result) {
+
+        String messageId() {
+            return message.getMessageProperties().getMessageId();
+        }
+    }
+}
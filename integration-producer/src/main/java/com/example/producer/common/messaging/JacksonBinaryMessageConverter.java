@@ -0,0 +1,55 @@
+package com.example.producer.common.messaging;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractMessageConverter;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.io.IOException;
+
+/**
+ * Converts payloads with a binary Jackson format (Smile, CBOR). Unlike the JSON
+ * converter, bodies are always read and written as raw bytes, never via a String.
+ */
+public class JacksonBinaryMessageConverter extends AbstractMessageConverter {
+
+    private final ObjectMapper objectMapper;
+    private final String contentType;
+    private final DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+
+    public JacksonBinaryMessageConverter(ObjectMapper objectMapper, String contentType, String... trustedPackages) {
+        this.objectMapper = objectMapper;
+        this.contentType = contentType;
+        this.typeMapper.setTrustedPackages(trustedPackages);
+    }
+
+    @Override
+    protected Message createMessage(Object object, MessageProperties messageProperties) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(object);
+            messageProperties.setContentType(contentType);
+            messageProperties.setContentLength(body.length);
+            typeMapper.fromJavaType(objectMapper.constructType(object.getClass()), messageProperties);
+            return new Message(body, messageProperties);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to encode " + contentType + " message", e);
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        if (properties == null || !contentType.equals(properties.getContentType())) {
+            return message.getBody();
+        }
+        try {
+            JavaType targetType = typeMapper.toJavaType(properties);
+            return objectMapper.readValue(message.getBody(), targetType);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to decode " + contentType + " message", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.producer.common.messaging;
+
+/**
+ * Wire format for published messages, selected with {@code rabbitmq.message-format}.
+ * The content type (and {@code gzip} content encoding) is set on every message so
+ * consumers can decode any of them.
+ */
+public enum MessageFormat {
+
+    JSON("application/json", false),
+    JSON_GZIP("application/json", true),
+    SMILE("application/x-jackson-smile", false),
+    CBOR("application/cbor", false);
+
+    private final String contentType;
+    private final boolean compressed;
+
+    MessageFormat(String contentType, boolean compressed) {
+        this.contentType = contentType;
+        this.compressed = compressed;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.producer.common.messaging;
+
+public class PublishException extends RuntimeException {
+
+    public PublishException(String message) {
+        super(message);
+    }
+
+    public PublishException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.producer.common.messaging;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Collects the confirm futures of one sync run so the run can wait for all of
+ * them at the end instead of after every message.
+ */
+public class PublishTracker {
+
+    private final Queue<CompletableFuture<Void>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong confirmedRecords = new AtomicLong();
+
+    public void track(CompletableFuture<Void> confirm, int records, LongConsumer onConfirmed) {
+        pending.add(confirm.thenRun(() -> {
+            confirmedRecords.addAndGet(records);
+            onConfirmed.accept(records);
+        }));
+    }
+
+    /**
+     * Blocks until every tracked message is confirmed or has failed.
+     *
+     * @throws PublishException if any message could not be delivered
+     */
+    public void awaitConfirms() {
+        try {
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw new PublishException("Publishing failed after " + confirmedRecords.get() + " confirmed records", e.getCause());
+        }
+    }
+
+    public long confirmedRecords() {
+        return confirmedRecords.get();
+    }
+}
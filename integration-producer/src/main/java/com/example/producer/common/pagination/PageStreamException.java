@@ -0,0 +1,17 @@
+package com.example.producer.common.pagination;
+
+/**
+ * Thrown when a streamed page cannot be read to the end. Unchecked so that
+ * RestTemplate does not wrap it as a retryable I/O error: records parsed
+ * before the failure have already been handed to the sink.
+ */
+public class PageStreamException extends RuntimeException {
+
+    public PageStreamException(String message) {
+        super(message);
+    }
+
+    public PageStreamException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.producer.common.pagination;
+
+import com.example.producer.common.model.PagedResponse;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Decodes a {@link PagedResponse} straight from a response stream. Either the
+ * whole page is bound at once, or the {@code content} array is walked token by
+ * token and each record handed to a sink as soon as it is parsed, so a page is
+ * never fully materialised.
+ */
+public class PagedResponseReader<T> {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader pageReader;
+    private final ObjectReader recordReader;
+
+    public PagedResponseReader(ObjectMapper objectMapper, Class<T> recordType) {
+        this.objectMapper = objectMapper;
+        this.pageReader = objectMapper.readerFor(
+            objectMapper.getTypeFactory().constructParametricType(PagedResponse.class, recordType));
+        this.recordReader = objectMapper.readerFor(recordType);
+    }
+
+    public PagedResponse<T> read(InputStream body) throws IOException {
+        return pageReader.readValue(body);
+    }
+
+    /**
+     * Streams the page into {@code sink}. Null elements of {@code content} are
+     * skipped; any failure to read the page is raised as a
+     * {@link PageStreamException}, since part of it may already be published.
+     */
+    public PagedResponse<T> stream(InputStream body, Consumer<T> sink) {
+        try {
+            return streamPage(body, sink);
+        } catch (IOException e) {
+            throw new PageStreamException("Failed to read streamed page: " + e.getMessage(), e);
+        }
+    }
+
+    private PagedResponse<T> streamPage(InputStream body, Consumer<T> sink) throws IOException {
+        PagedResponse<T> metadata = new PagedResponse<>();
+        metadata.setContent(List.of());
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new PageStreamException("Expected paged response object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                switch (field) {
+                    case "content" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            streamContent(parser, sink);
+                        } else if (value != JsonToken.VALUE_NULL) {
+                            throw new PageStreamException("Expected content array but found " + value);
+                        }
+                    }
+                    case "page" -> metadata.setPage(parser.getIntValue());
+                    case "size" -> metadata.setSize(parser.getIntValue());
+                    case "total_elements" -> metadata.setTotalElements(parser.getLongValue());
+                    case "total_pages" -> metadata.setTotalPages(parser.getIntValue());
+                    case "has_next" -> metadata.setHasNext(parser.getBooleanValue());
+                    case "has_previous" -> metadata.setHasPrevious(parser.getBooleanValue());
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return metadata;
+    }
+
+    private void streamContent(JsonParser parser, Consumer<T> sink) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_OBJECT) {
+                sink.accept(recordReader.readValue(parser));
+            } else if (token == null) {
+                throw new PageStreamException("Content array ended before END_ARRAY");
+            } else if (token != JsonToken.VALUE_NULL) {
+                throw new PageStreamException("Unexpected " + token + " in content array");
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.producer.common.pagination;
+
+import com.example.producer.common.model.PagedResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Walks every page of a paginated upstream endpoint and hands its records to a
+ * publisher in chunks of at most {@code sync.chunk-size} as soon as they arrive.
+ * At most {@code sync.max-in-flight} pages are requested (and therefore held in
+ * memory) at any time.
+ *
+ * <p>Chunk sequence numbers are derived from the page index, so they are stable
+ * however pages interleave. Chunks carry no total: the upstream's reported
+ * {@code total_elements} can change while a run is in progress, so callers end
+ * the run with {@link PaginationResult#closingChunk()}, which carries the
+ * number of chunks actually published.
+ */
+@Component
+public class PaginatedFetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(PaginatedFetcher.class);
+
+    private final Executor pageFetchExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${sync.page-size:100}")
+    private int pageSize;
+
+    @Value("${sync.max-in-flight:4}")
+    private int maxInFlight;
+
+    @Value("${sync.chunk-size:100}")
+    private int chunkSize;
+
+    public PaginatedFetcher(@Qualifier("pageFetchExecutor") Executor pageFetchExecutor, MeterRegistry meterRegistry) {
+        this.pageFetchExecutor = pageFetchExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Fetches whole pages and publishes each page's content in chunks.
+     */
+    public <T> PaginationResult fetchAll(String source, PageFetcher<T> fetcher, ChunkPublisher<T> publisher) {
+        ChunkLayout layout = new ChunkLayout(pageSize, chunkSize);
+        ChunkCounter<T> counter = new ChunkCounter<>(publisher);
+        Timer pageTimer = pageTimer(source, "fetch");
+        return walk(source, counter, page -> {
+            PagedResponse<T> response = pageTimer.record(() -> fetcher.fetch(page, pageSize));
+            layout.init(response);
+            List<T> content = response.getContent() != null ? response.getContent() : List.of();
+            int index = 0;
+            for (int from = 0; from < content.size(); from += layout.chunkSize()) {
+                List<T> records = content.subList(from, Math.min(from + layout.chunkSize(), content.size()));
+                counter.publish(records, layout.chunk(page, index++));
+            }
+            return new PageOutcome(response.getTotalPages(), response.isHasNext(), content.size());
+        });
+    }
+
+    /**
+     * Decodes records one by one as each page is parsed and publishes them in
+     * chunks, so a page is never held whole. The first page's chunks are held
+     * back until its metadata has been read, since the page size it reports
+     * fixes the sequence numbering.
+     */
+    public <T> PaginationResult streamAll(String source, StreamingPageFetcher<T> fetcher, ChunkPublisher<T> publisher) {
+        ChunkLayout layout = new ChunkLayout(pageSize, chunkSize);
+        ChunkCounter<T> counter = new ChunkCounter<>(publisher);
+        Timer pageTimer = pageTimer(source, "stream");
+        return walk(source, counter, page -> {
+            ChunkBatcher<T> batcher = new ChunkBatcher<>(page, layout, counter);
+            // Includes publishing, which is interleaved with decoding in this mode
+            PagedResponse<T> metadata = pageTimer.record(() -> fetcher.fetch(page, pageSize, batcher));
+            layout.init(metadata);
+            batcher.finish();
+            return new PageOutcome(metadata.getTotalPages(), metadata.isHasNext(), batcher.count());
+        });
+    }
+
+    private Timer pageTimer(String source, String mode) {
+        return Timer.builder("producer.page.fetch")
+            .description("Upstream page fetch latency")
+            .tags("source", source, "mode", mode)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    private PaginationResult walk(String source, ChunkCounter<?> counter, PageTask task) {
+        long start = System.currentTimeMillis();
+
+        PageOutcome first = task.run(0);
+        AtomicLong records = new AtomicLong(first.records());
+        int pages = 1;
+
+        if (first.totalPages() > 1) {
+            pages = fetchRemainingConcurrently(source, first.totalPages(), task, records);
+        } else if (first.totalPages() == 0 && first.hasNext()) {
+            pages = fetchRemainingSequentially(task, records);
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        log.info("Fetched {} {} across {} pages in {} ms", records.get(), source, pages, durationMs);
+        return new PaginationResult(pages, records.get(), durationMs, counter.chunks(), counter.nextSequence());
+    }
+
+    private int fetchRemainingConcurrently(String source, int totalPages, PageTask task, AtomicLong records) {
+        Semaphore inFlight = new Semaphore(Math.max(1, maxInFlight));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(totalPages - 1);
+
+        for (int page = 1; page < totalPages && failure.get() == null; page++) {
+            final int current = page;
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+                break;
+            }
+
+            try {
+                futures.add(CompletableFuture
+                    .runAsync(() -> records.addAndGet(task.run(current).records()), pageFetchExecutor)
+                    .whenComplete((ignored, error) -> {
+                        inFlight.release();
+                        if (error != null) {
+                            failure.compareAndSet(null, error);
+                            log.error("Failed to fetch {} page {}", source, current, error);
+                        }
+                    }));
+            } catch (RuntimeException e) {
+                inFlight.release();
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+            .exceptionally(error -> null)
+            .join();
+
+        Throwable error = failure.get();
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            throw new PaginationException("Failed to fetch all " + source + " pages", cause, records.get());
+        }
+        return totalPages;
+    }
+
+    private int fetchRemainingSequentially(PageTask task, AtomicLong records) {
+        int page = 1;
+        boolean hasNext = true;
+        while (hasNext) {
+            PageOutcome outcome = task.run(page);
+            records.addAndGet(outcome.records());
+            hasNext = outcome.hasNext();
+            page++;
+        }
+        return page;
+    }
+
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        PagedResponse<T> fetch(int page, int size);
+    }
+
+    @FunctionalInterface
+    public interface StreamingPageFetcher<T> {
+        PagedResponse<T> fetch(int page, int size, Consumer<T> sink);
+    }
+
+    @FunctionalInterface
+    public interface ChunkPublisher<T> {
+        void publish(List<T> records, Chunk chunk);
+    }
+
+    /**
+     * @param chunks       number of chunks published
+     * @param nextSequence one past the highest sequence published
+     */
+    public record PaginationResult(int pages, long records, long durationMs, int chunks, int nextSequence) {
+
+        /**
+         * The run's closing (empty) chunk. Its total counts every published
+         * chunk plus itself, so a consumer knows the run is complete once it
+         * has received that many.
+         */
+        public Chunk closingChunk() {
+            return new Chunk(nextSequence, chunks + 1);
+        }
+    }
+
+    public record Chunk(int sequence, Integer totalChunks) {}
+
+    @FunctionalInterface
+    private interface PageTask {
+        PageOutcome run(int page);
+    }
+
+    private record PageOutcome(int totalPages, boolean hasNext, int records) {}
+
+    /**
+     * Maps (page, chunk-within-page) to a run-wide sequence number. Every full
+     * page yields the same number of chunks, so only the last page is short.
+     */
+    private static final class ChunkLayout {
+
+        private final int requestedPageSize;
+        private final int chunkSize;
+        private volatile int chunksPerPage;
+        private volatile boolean initialized;
+
+        ChunkLayout(int requestedPageSize, int chunkSize) {
+            this.requestedPageSize = requestedPageSize;
+            this.chunkSize = Math.max(1, chunkSize);
+            this.chunksPerPage = chunksFor(requestedPageSize);
+        }
+
+        synchronized void init(PagedResponse<?> firstPage) {
+            if (initialized) {
+                return;
+            }
+            // The upstream may cap the page size below what was requested
+            int pageSize = firstPage.getSize() > 0 ? firstPage.getSize() : requestedPageSize;
+            chunksPerPage = chunksFor(pageSize);
+            initialized = true;
+        }
+
+        boolean isInitialized() {
+            return initialized;
+        }
+
+        int chunkSize() {
+            return chunkSize;
+        }
+
+        Chunk chunk(int page, int index) {
+            return new Chunk(page * chunksPerPage + index, null);
+        }
+
+        private int chunksFor(int records) {
+            return (records + chunkSize - 1) / chunkSize;
+        }
+    }
+
+    /**
+     * Counts the chunks of one run as they are published, for its closing chunk.
+     */
+    private static final class ChunkCounter<T> implements ChunkPublisher<T> {
+
+        private final ChunkPublisher<T> delegate;
+        private final AtomicInteger chunks = new AtomicInteger();
+        private final AtomicInteger nextSequence = new AtomicInteger();
+
+        ChunkCounter(ChunkPublisher<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void publish(List<T> records, Chunk chunk) {
+            delegate.publish(records, chunk);
+            chunks.incrementAndGet();
+            nextSequence.accumulateAndGet(chunk.sequence() + 1, Math::max);
+        }
+
+        int chunks() {
+            return chunks.get();
+        }
+
+        int nextSequence() {
+            return nextSequence.get();
+        }
+    }
+
+    private static final class ChunkBatcher<T> implements Consumer<T> {
+
+        private final int page;
+        private final ChunkLayout layout;
+        private final ChunkPublisher<T> publisher;
+        private final List<List<T>> heldBack = new ArrayList<>();
+        private List<T> buffer;
+        private int count;
+        private int nextIndex;
+
+        ChunkBatcher(int page, ChunkLayout layout, ChunkPublisher<T> publisher) {
+            this.page = page;
+            this.layout = layout;
+            this.publisher = publisher;
+            this.buffer = new ArrayList<>(layout.chunkSize());
+        }
+
+        @Override
+        public void accept(T record) {
+            buffer.add(record);
+            count++;
+            if (buffer.size() >= layout.chunkSize()) {
+                heldBack.add(buffer);
+                buffer = new ArrayList<>(layout.chunkSize());
+                if (layout.isInitialized()) {
+                    publishHeldBack();
+                }
+            }
+        }
+
+        void finish() {
+            if (!buffer.isEmpty()) {
+                heldBack.add(buffer);
+                buffer = new ArrayList<>(0);
+            }
+            publishHeldBack();
+        }
+
+        int count() {
+            return count;
+        }
+
+        private void publishHeldBack() {
+            for (List<T> records : heldBack) {
+                publisher.publish(records, layout.chunk(page, nextIndex++));
+            }
+            heldBack.clear();
+        }
+    }
+}
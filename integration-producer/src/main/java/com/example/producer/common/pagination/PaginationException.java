@@ -0,0 +1,15 @@
+package com.example.producer.common.pagination;
+
+public class PaginationException extends RuntimeException {
+
+    private final long recordsPublished;
+
+    public PaginationException(String message, Throwable cause, long recordsPublished) {
+        super(message, cause);
+        this.recordsPublished = recordsPublished;
+    }
+
+    public long getRecordsPublished() {
+        return recordsPublished;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.producer.common.scheduler;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Lease-based lock on a Redis key ({@code SET NX PX}). Release and renewal only
+ * act on the caller's own lease, so an expired holder cannot free or extend a
+ * lock another replica has since taken.
+ */
+@Component
+public class RedisLock {
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+        Long.class);
+
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+        Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisLock(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public Optional<Lease> tryAcquire(String key, String owner, Duration ttl) {
+        String token = owner + ":" + UUID.randomUUID();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(key, token, ttl);
+        return Boolean.TRUE.equals(acquired) ? Optional.of(new Lease(key, token)) : Optional.empty();
+    }
+
+    public boolean renew(Lease lease, Duration ttl) {
+        Long renewed = redisTemplate.execute(RENEW, List.of(lease.key()), lease.token(), String.valueOf(ttl.toMillis()));
+        return renewed != null && renewed == 1;
+    }
+
+    public void release(Lease lease) {
+        redisTemplate.execute(RELEASE, List.of(lease.key()), lease.token());
+    }
+
+    public record Lease(String key, String token) {}
+}
@@ -0,0 +1,43 @@
+package com.example.producer.common.scheduler;
+
+import com.example.producer.common.sync.SyncResult;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+/**
+ * One scheduled sync attempt, as kept in the run history.
+ */
+public record SyncRun(
+    @JsonProperty("source") String source,
+    @JsonProperty("instance") String instance,
+    @JsonProperty("status") Status status,
+    @JsonProperty("started_at") Instant startedAt,
+    @JsonProperty("duration_ms") long durationMs,
+    @JsonProperty("records_published") long recordsPublished,
+    @JsonProperty("pages") int pages,
+    @JsonProperty("error") String error
+) {
+
+    public enum Status {
+        COMPLETED,
+        FAILED,
+        SKIPPED_OVERLAP,
+        SKIPPED_LOCKED
+    }
+
+    public static SyncRun of(SyncResult result, String instance, Instant startedAt) {
+        Status status = result.isSuccess() ? Status.COMPLETED : Status.FAILED;
+        return new SyncRun(result.source(), instance, status, startedAt, result.durationMs(),
+            result.recordsPublished(), result.pages(), result.error());
+    }
+
+    public static SyncRun skipped(String source, String instance, Status status) {
+        return new SyncRun(source, instance, status, Instant.now(), 0, 0, 0, null);
+    }
+
+    public static SyncRun failed(String source, String instance, Instant startedAt, Exception e) {
+        long durationMs = Instant.now().toEpochMilli() - startedAt.toEpochMilli();
+        return new SyncRun(source, instance, Status.FAILED, startedAt, durationMs, 0, 0, e.getMessage());
+    }
+}
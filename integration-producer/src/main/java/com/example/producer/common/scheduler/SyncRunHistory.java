@@ -0,0 +1,59 @@
+package com.example.producer.common.scheduler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Most recent sync runs across all replicas, newest first, in a capped Redis list.
+ */
+@Component
+public class SyncRunHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncRunHistory.class);
+    private static final String KEY = "sync:runs";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${scheduler.history-size:200}")
+    private int historySize;
+
+    public SyncRunHistory(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void record(SyncRun run) {
+        try {
+            redisTemplate.opsForList().leftPush(KEY, objectMapper.writeValueAsString(run));
+            redisTemplate.opsForList().trim(KEY, 0, historySize - 1);
+        } catch (JsonProcessingException | RuntimeException e) {
+            // History is diagnostic only; never fail a sync because of it
+            log.warn("Failed to record {} sync run", run.source(), e);
+        }
+    }
+
+    public List<SyncRun> recent(int limit) {
+        List<String> entries = redisTemplate.opsForList().range(KEY, 0, Math.min(limit, historySize) - 1);
+        List<SyncRun> runs = new ArrayList<>();
+        if (entries == null) {
+            return runs;
+        }
+        for (String entry : entries) {
+            try {
+                runs.add(objectMapper.readValue(entry, SyncRun.class));
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping unreadable sync run history entry", e);
+            }
+        }
+        return runs;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.producer.common.scheduler;
+
+import com.example.producer.common.sync.SyncResult;
+import com.example.producer.integrations.crm.service.CrmService;
+import com.example.producer.integrations.inventory.service.InventoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs the CRM and Inventory syncs on the {@code scheduler.*} crons.
+ *
+ * <p>Each trigger waits a random jitter on the task scheduler and then runs on
+ * the callback executor, so the scheduler thread is never blocked. A trigger
+ * is skipped while the previous run of the same source is still going in this
+ * process, or while another replica holds the source's Redis lock. The lock is
+ * renewed for as long as the run lasts.
+ */
+@Component
+@ConditionalOnProperty(name = "scheduler.enabled", havingValue = "true")
+public class SyncScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncScheduler.class);
+    private static final String LOCK_PREFIX = "sync:lock:";
+
+    private final CrmService crmService;
+    private final InventoryService inventoryService;
+    private final RedisLock redisLock;
+    private final SyncRunHistory history;
+    private final Executor callbackExecutor;
+    private final TaskScheduler taskScheduler;
+    private final String instance = instanceName();
+    private final Map<String, AtomicBoolean> running = new ConcurrentHashMap<>();
+
+    @Value("${scheduler.jitter:30s}")
+    private Duration jitter;
+
+    @Value("${scheduler.lock-ttl:2m}")
+    private Duration lockTtl;
+
+    public SyncScheduler(CrmService crmService, InventoryService inventoryService, RedisLock redisLock,
+                         SyncRunHistory history, @Qualifier("callbackExecutor") Executor callbackExecutor,
+                         TaskScheduler taskScheduler) {
+        this.crmService = crmService;
+        this.inventoryService = inventoryService;
+        this.redisLock = redisLock;
+        this.history = history;
+        this.callbackExecutor = callbackExecutor;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @Scheduled(cron = "${scheduler.customer-fetch-cron}")
+    public void syncCustomers() {
+        trigger("customers", crmService::syncCustomers);
+    }
+
+    @Scheduled(cron = "${scheduler.inventory-fetch-cron}")
+    public void syncProducts() {
+        trigger("products", inventoryService::syncProducts);
+    }
+
+    private void trigger(String source, Supplier<SyncResult> sync) {
+        AtomicBoolean guard = running.computeIfAbsent(source, key -> new AtomicBoolean());
+        if (!guard.compareAndSet(false, true)) {
+            log.info("Skipping scheduled {} sync: previous run still in progress", source);
+            history.record(SyncRun.skipped(source, instance, SyncRun.Status.SKIPPED_OVERLAP));
+            return;
+        }
+
+        long delayMillis = jitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1);
+        try {
+            taskScheduler.schedule(() -> start(source, sync, guard), Instant.now().plusMillis(delayMillis));
+        } catch (RuntimeException e) {
+            guard.set(false);
+            log.error("Failed to schedule {} sync", source, e);
+        }
+    }
+
+    /**
+     * Hands the run to the callback executor once the jitter has elapsed. The
+     * guard is released here if the executor rejects it, since the run's own
+     * finally block never executes then.
+     */
+    private void start(String source, Supplier<SyncResult> sync, AtomicBoolean guard) {
+        try {
+            callbackExecutor.execute(() -> {
+                try {
+                    runLocked(source, sync);
+                } finally {
+                    guard.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            guard.set(false);
+            log.error("Failed to start scheduled {} sync", source, e);
+            history.record(SyncRun.failed(source, instance, Instant.now(), e));
+        }
+    }
+
+    private void runLocked(String source, Supplier<SyncResult> sync) {
+        Instant startedAt = Instant.now();
+        Optional<RedisLock.Lease> lease;
+        try {
+            lease = redisLock.tryAcquire(LOCK_PREFIX + source, instance, lockTtl);
+        } catch (RuntimeException e) {
+            log.error("Could not acquire {} sync lock", source, e);
+            history.record(SyncRun.failed(source, instance, startedAt, e));
+            return;
+        }
+        if (lease.isEmpty()) {
+            log.info("Skipping scheduled {} sync: another instance holds the lock", source);
+            history.record(SyncRun.skipped(source, instance, SyncRun.Status.SKIPPED_LOCKED));
+            return;
+        }
+
+        ScheduledFuture<?> renewal = taskScheduler.scheduleAtFixedRate(
+            () -> renew(source, lease.get()), startedAt.plus(lockTtl.dividedBy(3)), lockTtl.dividedBy(3));
+        try {
+            log.info("Starting scheduled {} sync", source);
+            SyncResult result = sync.get();
+            history.record(SyncRun.of(result, instance, startedAt));
+            log.info("Scheduled {} sync {} in {} ms: {} records", source,
+                result.isSuccess() ? "completed" : "failed", result.durationMs(), result.recordsPublished());
+        } finally {
+            renewal.cancel(false);
+            try {
+                redisLock.release(lease.get());
+            } catch (RuntimeException e) {
+                log.warn("Failed to release {} sync lock; it expires in {}", source, lockTtl, e);
+            }
+        }
+    }
+
+    private void renew(String source, RedisLock.Lease lease) {
+        try {
+            if (!redisLock.renew(lease, lockTtl)) {
+                log.warn("Lost {} sync lock while the run was in progress", source);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew {} sync lock", source, e);
+        }
+    }
+
+    private static String instanceName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.producer.common.soap;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import org.springframework.oxm.Marshaller;
+import org.springframework.oxm.MarshallingFailureException;
+import org.springframework.oxm.Unmarshaller;
+import org.springframework.oxm.UnmarshallingFailureException;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.stax.StAXSource;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Reuses JAXB marshallers and unmarshallers across calls instead of creating a
+ * pair per SOAP request as {@link Jaxb2Marshaller} does. JAXB instances are not
+ * thread-safe, so each is borrowed by one call at a time; the pools grow to the
+ * peak number of concurrent calls.
+ */
+public class PooledJaxbMarshaller implements Marshaller, Unmarshaller {
+
+    private final Jaxb2Marshaller delegate;
+    private final JAXBContext context;
+    private final Queue<jakarta.xml.bind.Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+    private final Queue<jakarta.xml.bind.Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param delegate an initialized marshaller, whose JAXB context is shared
+     */
+    public PooledJaxbMarshaller(Jaxb2Marshaller delegate) {
+        this.delegate = delegate;
+        this.context = delegate.getJaxbContext();
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void marshal(Object graph, Result result) {
+        jakarta.xml.bind.Marshaller marshaller = marshallers.poll();
+        try {
+            if (marshaller == null) {
+                marshaller = context.createMarshaller();
+            }
+            marshaller.marshal(graph, result);
+        } catch (JAXBException e) {
+            throw new MarshallingFailureException("JAXB marshalling failed", e);
+        } finally {
+            if (marshaller != null) {
+                marshallers.offer(marshaller);
+            }
+        }
+    }
+
+    @Override
+    public Object unmarshal(Source source) {
+        jakarta.xml.bind.Unmarshaller unmarshaller = unmarshallers.poll();
+        try {
+            if (unmarshaller == null) {
+                unmarshaller = context.createUnmarshaller();
+            }
+            if (source instanceof StAXSource staxSource) {
+                return staxSource.getXMLStreamReader() != null
+                    ? unmarshaller.unmarshal(staxSource.getXMLStreamReader())
+                    : unmarshaller.unmarshal(staxSource.getXMLEventReader());
+            }
+            return unmarshaller.unmarshal(source);
+        } catch (JAXBException e) {
+            throw new UnmarshallingFailureException("JAXB unmarshalling failed", e);
+        } finally {
+            if (unmarshaller != null) {
+                unmarshallers.offer(unmarshaller);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.producer.common.sync;
+
+/**
+ * Thrown when a fetch-all is requested while {@code sync.max-concurrent-runs}
+ * runs are already in progress.
+ */
+public class SyncBusyException extends RuntimeException {
+
+    public SyncBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.producer.common.sync;
+
+import com.example.producer.integrations.crm.service.CrmService;
+import com.example.producer.integrations.inventory.service.InventoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the CRM and Inventory pipelines concurrently on the sync executor,
+ * either blocking until both finish or as a tracked background job. At most
+ * {@code sync.max-concurrent-runs} fetch-alls run at once; further requests
+ * are refused with a {@link SyncBusyException} before anything is started.
+ */
+@Service
+public class SyncCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncCoordinator.class);
+    private static final int MAX_TRACKED_JOBS = 100;
+
+    private final CrmService crmService;
+    private final InventoryService inventoryService;
+    private final Executor syncExecutor;
+    private final Semaphore runSlots;
+
+    private final Map<String, SyncJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SyncJob> eldest) {
+            return size() > MAX_TRACKED_JOBS;
+        }
+    };
+
+    public SyncCoordinator(CrmService crmService, InventoryService inventoryService,
+                           @Qualifier("syncExecutor") Executor syncExecutor,
+                           @Value("${sync.max-concurrent-runs:4}") int maxConcurrentRuns) {
+        this.crmService = crmService;
+        this.inventoryService = inventoryService;
+        this.syncExecutor = syncExecutor;
+        this.runSlots = new Semaphore(maxConcurrentRuns);
+    }
+
+    public Map<String, SyncResult> syncAll() {
+        return start(new SyncJob(UUID.randomUUID().toString())).join();
+    }
+
+    public SyncJob submitSyncAll() {
+        SyncJob job = new SyncJob(UUID.randomUUID().toString());
+        CompletableFuture<Map<String, SyncResult>> run = start(job);
+        synchronized (jobs) {
+            jobs.put(job.getJobId(), job);
+        }
+        run.whenComplete((results, error) -> {
+            if (error != null) {
+                log.error("Sync job {} failed", job.getJobId(), error);
+            }
+        });
+        return job;
+    }
+
+    public Optional<SyncJob> getJob(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId));
+        }
+    }
+
+    /**
+     * @throws SyncBusyException if the maximum number of runs is already in progress
+     */
+    private CompletableFuture<Map<String, SyncResult>> start(SyncJob job) {
+        if (!runSlots.tryAcquire()) {
+            throw new SyncBusyException("Too many sync runs in progress, retry later");
+        }
+        CompletableFuture<SyncResult> customers;
+        CompletableFuture<SyncResult> products;
+        try {
+            // The executor has a thread for both pipelines of every permitted run, so neither is rejected
+            customers = CompletableFuture.supplyAsync(
+                () -> crmService.syncCustomers(job.progress("customers")::addAndGet), syncExecutor);
+            products = CompletableFuture.supplyAsync(
+                () -> inventoryService.syncProducts(job.progress("products")::addAndGet), syncExecutor);
+        } catch (RuntimeException e) {
+            runSlots.release();
+            throw e;
+        }
+
+        return customers.thenCombine(products, (customerResult, productResult) -> {
+            Map<String, SyncResult> results = new LinkedHashMap<>();
+            results.put(customerResult.source(), customerResult);
+            results.put(productResult.source(), productResult);
+            job.complete(results);
+            return results;
+        }).whenComplete((results, error) -> runSlots.release());
+    }
+}
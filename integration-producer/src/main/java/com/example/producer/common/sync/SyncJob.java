@@ -0,0 +1,75 @@
+package com.example.producer.common.sync;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks an asynchronous fetch-all run: live per-source progress while it is
+ * running, and per-source results once each pipeline finishes.
+ */
+public class SyncJob {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        PARTIAL,
+        FAILED
+    }
+
+    private final String jobId;
+    private final Instant startedAt = Instant.now();
+    private final Map<String, AtomicLong> progress = new ConcurrentHashMap<>();
+    private final Map<String, SyncResult> results = new ConcurrentHashMap<>();
+    private volatile State state = State.RUNNING;
+    private volatile Instant finishedAt;
+
+    public SyncJob(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public AtomicLong progress(String source) {
+        return progress.computeIfAbsent(source, key -> new AtomicLong());
+    }
+
+    public void complete(Map<String, SyncResult> sourceResults) {
+        results.putAll(sourceResults);
+        state = stateOf(sourceResults.values());
+        finishedAt = Instant.now();
+    }
+
+    public static State stateOf(Collection<SyncResult> sourceResults) {
+        long succeeded = sourceResults.stream().filter(SyncResult::isSuccess).count();
+        if (succeeded == sourceResults.size()) {
+            return State.COMPLETED;
+        }
+        return succeeded == 0 ? State.FAILED : State.PARTIAL;
+    }
+
+    public boolean isDone() {
+        return state != State.RUNNING;
+    }
+
+    public Snapshot snapshot() {
+        Map<String, Long> published = new ConcurrentHashMap<>();
+        progress.forEach((source, count) -> published.put(source, count.get()));
+        return new Snapshot(jobId, state, startedAt, finishedAt, published, Map.copyOf(results));
+    }
+
+    public record Snapshot(
+        @JsonProperty("job_id") String jobId,
+        @JsonProperty("state") State state,
+        @JsonProperty("started_at") Instant startedAt,
+        @JsonProperty("finished_at") Instant finishedAt,
+        @JsonProperty("records_published") Map<String, Long> recordsPublished,
+        @JsonProperty("results") Map<String, SyncResult> results
+    ) {}
+}
@@ -0,0 +1,40 @@
+package com.example.producer.common.sync;
+
+import com.example.producer.common.pagination.PaginatedFetcher;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Outcome of syncing one upstream source. Failures carry the number of records
+ * the broker confirmed before the error, since pages are published as they arrive.
+ */
+public record SyncResult(
+    @JsonProperty("source") String source,
+    @JsonProperty("status") Status status,
+    @JsonProperty("records_published") long recordsPublished,
+    @JsonProperty("pages") int pages,
+    @JsonProperty("duration_ms") long durationMs,
+    @JsonProperty("error") String error
+) {
+
+    public enum Status {
+        SUCCESS,
+        FAILED
+    }
+
+    /**
+     * @param durationMs the whole run, including waiting for the final confirms
+     */
+    public static SyncResult success(String source, PaginatedFetcher.PaginationResult result, long recordsPublished,
+                                     long durationMs) {
+        return new SyncResult(source, Status.SUCCESS, recordsPublished, result.pages(), durationMs, null);
+    }
+
+    public static SyncResult failure(String source, Exception e, long recordsPublished, long durationMs) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        return new SyncResult(source, Status.FAILED, recordsPublished, 0, durationMs, cause.getMessage());
+    }
+
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+}
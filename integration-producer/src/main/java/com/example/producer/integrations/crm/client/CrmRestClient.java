@@ -1,17 +1,26 @@
 package com.example.producer.integrations.crm.client;
 
 import com.example.producer.common.model.PagedResponse;
+import com.example.producer.common.pagination.PagedResponseReader;
 import com.example.producer.integrations.crm.model.Customer;
 import com.example.producer.integrations.crm.service.CrmAuthService;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import io.github.resilience4j.retry.annotation.Retry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 @Component
 public class CrmRestClient {
 
@@ -19,37 +28,51 @@ public class CrmRestClient {
 
     private final RestTemplate restTemplate;
     private final CrmAuthService authService;
-    private final ObjectMapper objectMapper;
+    private final PagedResponseReader<Customer> pageReader;
 
     @Value("${mock-service.base-url}")
     private String mockServiceUrl;
 
-    public CrmRestClient(CrmAuthService authService, ObjectMapper objectMapper) {
-        this.restTemplate = new RestTemplate();
+    public CrmRestClient(@Qualifier("crmRestTemplate") RestTemplate restTemplate,
+                         CrmAuthService authService, ObjectMapper objectMapper) {
+        this.restTemplate = restTemplate;
         this.authService = authService;
-        this.objectMapper = objectMapper;
+        this.pageReader = new PagedResponseReader<>(objectMapper, Customer.class);
     }
 
+    @Retry(name = "crm")
+    @CircuitBreaker(name = "crm")
+    @RateLimiter(name = "crm")
+    @Bulkhead(name = "crm")
     public PagedResponse<Customer> getCustomers(int page, int size) {
-        String url = mockServiceUrl + "/crm/api/customers?page=" + page + "&size=" + size;
+        log.info("Fetching customers from CRM - page: {}, size: {}", page, size);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(authService.getToken());
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        return authService.withToken(token -> restTemplate.execute(customersUrl(page, size), HttpMethod.GET,
+            request -> authorize(request, token), response -> pageReader.read(response.getBody())));
+    }
 
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
+    /**
+     * Fetches a page and hands each customer to {@code sink} as it is parsed.
+     * The returned response carries only the paging metadata. Not retried,
+     * since records already handed to the sink would be published twice.
+     */
+    @CircuitBreaker(name = "crm")
+    @RateLimiter(name = "crm")
+    @Bulkhead(name = "crm")
+    public PagedResponse<Customer> streamCustomers(int page, int size, Consumer<Customer> sink) {
+        log.info("Streaming customers from CRM - page: {}, size: {}", page, size);
 
-        log.info("Fetching customers from CRM - page: {}, size: {}", page, size);
+        return authService.withToken(token -> restTemplate.execute(customersUrl(page, size), HttpMethod.GET,
+            request -> authorize(request, token), response -> pageReader.stream(response.getBody(), sink)));
+    }
 
-        ResponseEntity<String> response = restTemplate.exchange(
-            url, HttpMethod.GET, entity, String.class);
+    private String customersUrl(int page, int size) {
+        return mockServiceUrl + "/crm/api/customers?page=" + page + "&size=" + size;
+    }
 
-        try {
-            return objectMapper.readValue(response.getBody(),
-                new TypeReference<PagedResponse<Customer>>() {});
-        } catch (Exception e) {
-            log.error("Failed to parse CRM response", e);
-            throw new RuntimeException("Failed to parse CRM response", e);
-        }
+    private void authorize(ClientHttpRequest request, String token) {
+        HttpHeaders headers = request.getHeaders();
+        headers.setBearerAuth(token);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
     }
 }
@@ -2,6 +2,8 @@ package com.example.producer.integrations.crm.client;
 
 import com.example.producer.soap.generated.AddCustomerRequest;
 import com.example.producer.soap.generated.AddCustomerResponse;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,33 +24,38 @@ public class CrmSoapClient {
         this.webServiceTemplate = crmWebServiceTemplate;
     }
 
+    /**
+     * Not retried: AddCustomer is not idempotent.
+     */
+    @CircuitBreaker(name = "crm-soap", fallbackMethod = "addCustomerFailed")
+    @Bulkhead(name = "crm-soap")
     public SoapResponse addCustomer(String firstName, String lastName, String email, String phone) {
         log.info("Sending SOAP AddCustomer request for: {} {}", firstName, lastName);
 
-        try {
-            AddCustomerRequest request = new AddCustomerRequest();
-            request.setFirstName(firstName);
-            request.setLastName(lastName);
-            request.setEmail(email);
-            request.setPhone(phone);
+        AddCustomerRequest request = new AddCustomerRequest();
+        request.setFirstName(firstName);
+        request.setLastName(lastName);
+        request.setEmail(email);
+        request.setPhone(phone);
 
-            String endpoint = mockServiceUrl + "/crm/soap/customers";
+        String endpoint = mockServiceUrl + "/crm/soap/customers";
 
-            AddCustomerResponse response = (AddCustomerResponse) webServiceTemplate.marshalSendAndReceive(
-                endpoint,
-                request
-            );
+        AddCustomerResponse response = (AddCustomerResponse) webServiceTemplate.marshalSendAndReceive(
+            endpoint,
+            request
+        );
 
-            log.info("SOAP AddCustomer response - Status: {}, CustomerId: {}",
-                response.getStatus(), response.getCustomerId());
+        log.info("SOAP AddCustomer response - Status: {}, CustomerId: {}",
+            response.getStatus(), response.getCustomerId());
 
-            boolean success = "SUCCESS".equalsIgnoreCase(response.getStatus());
-            return new SoapResponse(success, response.getCustomerId(), response.getMessage());
+        boolean success = "SUCCESS".equalsIgnoreCase(response.getStatus());
+        return new SoapResponse(success, response.getCustomerId(), response.getMessage());
+    }
 
-        } catch (Exception e) {
-            log.error("SOAP AddCustomer failed", e);
-            return new SoapResponse(false, null, e.getMessage());
-        }
+    private SoapResponse addCustomerFailed(String firstName, String lastName, String email, String phone,
+                                           Exception e) {
+        log.error("SOAP AddCustomer failed", e);
+        return new SoapResponse(false, null, e.getMessage());
     }
 
     public record SoapResponse(boolean success, String customerId, String message) {}
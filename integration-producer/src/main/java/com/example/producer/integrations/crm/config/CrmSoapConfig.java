@@ -1,10 +1,14 @@
 package com.example.producer.integrations.crm.config;
 
+import com.example.producer.common.soap.PooledJaxbMarshaller;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.oxm.jaxb.Jaxb2Marshaller;
 import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.transport.http.HttpComponents5MessageSender;
 
 @Configuration
 public class CrmSoapConfig {
@@ -20,10 +24,14 @@ public class CrmSoapConfig {
     }
 
     @Bean
-    public WebServiceTemplate crmWebServiceTemplate(Jaxb2Marshaller crmMarshaller) {
+    public WebServiceTemplate crmWebServiceTemplate(Jaxb2Marshaller crmMarshaller,
+                                                    @Qualifier("crmSoapHttpClient") CloseableHttpClient httpClient) {
+        PooledJaxbMarshaller marshaller = new PooledJaxbMarshaller(crmMarshaller);
         WebServiceTemplate template = new WebServiceTemplate();
-        template.setMarshaller(crmMarshaller);
-        template.setUnmarshaller(crmMarshaller);
+        template.setMarshaller(marshaller);
+        template.setUnmarshaller(marshaller);
+        // Pooled keep-alive connections instead of HttpURLConnection per call
+        template.setMessageSender(new HttpComponents5MessageSender(httpClient));
         template.setDefaultUri(mockServiceUrl + "/crm/soap/customers");
         return template;
     }
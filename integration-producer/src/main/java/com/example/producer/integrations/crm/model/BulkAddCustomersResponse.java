@@ -0,0 +1,14 @@
+package com.example.producer.integrations.crm.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk AddCustomer call; {@code results} are in request order.
+ */
+public record BulkAddCustomersResponse(
+    int total,
+    int succeeded,
+    int failed,
+    long durationMs,
+    List<AddCustomerSoapResponse> results
+) {}
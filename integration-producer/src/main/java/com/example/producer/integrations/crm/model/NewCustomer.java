@@ -0,0 +1,11 @@
+package com.example.producer.integrations.crm.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/** One customer to create through SOAP AddCustomer. */
+public record NewCustomer(
+    @JsonProperty("first_name") String firstName,
+    @JsonProperty("last_name") String lastName,
+    @JsonProperty("email") String email,
+    @JsonProperty("phone") String phone
+) {}
@@ -1,20 +1,33 @@
 package com.example.producer.integrations.crm.service;
 
+import com.example.producer.common.delta.ContentHashStore;
+import com.example.producer.common.delta.DeltaRun;
+import com.example.producer.common.messaging.ConfirmingPublisher;
+import com.example.producer.common.messaging.PublishTracker;
 import com.example.producer.common.model.PagedResponse;
+import com.example.producer.common.pagination.PaginatedFetcher;
+import com.example.producer.common.sync.SyncResult;
 import com.example.producer.integrations.crm.client.CrmRestClient;
 import com.example.producer.integrations.crm.client.CrmSoapClient;
 import com.example.producer.integrations.crm.model.AddCustomerSoapResponse;
+import com.example.producer.integrations.crm.model.BulkAddCustomersResponse;
 import com.example.producer.integrations.crm.model.Customer;
 import com.example.producer.integrations.crm.model.CustomerMessage;
+import com.example.producer.integrations.crm.model.NewCustomer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongConsumer;
 
 @Service
 public class CrmService {
@@ -23,7 +36,11 @@ public class CrmService {
 
     private final CrmRestClient crmRestClient;
     private final CrmSoapClient crmSoapClient;
-    private final RabbitTemplate rabbitTemplate;
+    private final ConfirmingPublisher confirmingPublisher;
+    private final PaginatedFetcher paginatedFetcher;
+    private final ContentHashStore contentHashStore;
+    private final Executor soapExecutor;
+    private final Semaphore soapPermits;
 
     @Value("${rabbitmq.exchanges.integration}")
     private String exchangeName;
@@ -31,17 +48,69 @@ public class CrmService {
     @Value("${rabbitmq.routing-keys.customer}")
     private String customerRoutingKey;
 
-    public CrmService(CrmRestClient crmRestClient, CrmSoapClient crmSoapClient, RabbitTemplate rabbitTemplate) {
+    @Value("${sync.streaming.enabled:false}")
+    private boolean streamingDecode;
+
+    @Value("${sync.delta.enabled:false}")
+    private boolean deltaSync;
+
+    public CrmService(CrmRestClient crmRestClient, CrmSoapClient crmSoapClient, ConfirmingPublisher confirmingPublisher,
+                      PaginatedFetcher paginatedFetcher, ContentHashStore contentHashStore,
+                      @Qualifier("soapExecutor") Executor soapExecutor,
+                      @Value("${crm.soap.bulk.concurrency:32}") int soapConcurrency) {
         this.crmRestClient = crmRestClient;
         this.crmSoapClient = crmSoapClient;
-        this.rabbitTemplate = rabbitTemplate;
+        this.confirmingPublisher = confirmingPublisher;
+        this.paginatedFetcher = paginatedFetcher;
+        this.contentHashStore = contentHashStore;
+        this.soapExecutor = soapExecutor;
+        this.soapPermits = new Semaphore(soapConcurrency);
+    }
+
+    public SyncResult syncCustomers() {
+        return syncCustomers(count -> {});
+    }
+
+    /**
+     * Fetches every page and publishes it as it arrives, reporting each
+     * chunk's size to {@code onPublished} once the broker confirms it. The run
+     * only succeeds after every chunk is confirmed. The run ends with an empty
+     * closing chunk carrying the real chunk count. With {@code sync.delta.enabled}
+     * only changed records are published, followed by a tombstone message.
+     */
+    public SyncResult syncCustomers(LongConsumer onPublished) {
+        long start = System.currentTimeMillis();
+        PublishTracker tracker = new PublishTracker();
+        String syncRunId = UUID.randomUUID().toString();
+        DeltaRun<Customer> delta = deltaSync ? contentHashStore.begin("customers", Customer::getCustomerId) : null;
+        DeltaRun.DeltaSender<Customer> deltaSender = (changed, deletedIds, chunk) ->
+            publishCustomersDelta(changed, deletedIds, syncRunId, chunk);
+        PaginatedFetcher.ChunkPublisher<Customer> publisher = delta != null
+            ? delta.changesOnly(deltaSender, tracker, onPublished)
+            : (customers, chunk) -> tracker.track(publishCustomers(customers, syncRunId, chunk), customers.size(), onPublished);
+
+        try {
+            PaginatedFetcher.PaginationResult result = streamingDecode
+                ? paginatedFetcher.streamAll("customers", crmRestClient::streamCustomers, publisher)
+                : paginatedFetcher.fetchAll("customers", crmRestClient::getCustomers, publisher);
+            if (delta != null) {
+                delta.finish(deltaSender, tracker);
+            } else {
+                tracker.track(publishCustomers(List.of(), syncRunId, result.closingChunk()), 0, count -> {});
+            }
+            tracker.awaitConfirms();
+            return SyncResult.success("customers", result, tracker.confirmedRecords(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to fetch/publish all customers", e);
+            return SyncResult.failure("customers", e, tracker.confirmedRecords(), System.currentTimeMillis() - start);
+        }
     }
 
     public int fetchAndPublishCustomers(int page, int size) {
         try {
             PagedResponse<Customer> response = crmRestClient.getCustomers(page, size);
             List<Customer> customers = response.getContent();
-            publishCustomers(customers);
+            publishCustomers(customers).join();
             log.info("Published {} customers", customers.size());
             return customers.size();
         } catch (Exception e) {
@@ -55,16 +124,51 @@ public class CrmService {
         return response.getContent();
     }
 
-    public void publishCustomers(List<Customer> customers) {
+    /**
+     * Publishes {@code customers} as a standalone, single-chunk run.
+     */
+    public CompletableFuture<Void> publishCustomers(List<Customer> customers) {
+        return publishCustomers(customers, UUID.randomUUID().toString(), new PaginatedFetcher.Chunk(0, 1));
+    }
+
+    /**
+     * Publishes one chunk of a sync run and returns a future that completes on broker confirm.
+     */
+    public CompletableFuture<Void> publishCustomers(List<Customer> customers, String syncRunId, PaginatedFetcher.Chunk chunk) {
         CustomerMessage message = CustomerMessage.builder()
             .correlationId(UUID.randomUUID().toString())
             .timestamp(Instant.now())
             .source("integration-producer")
+            .syncRunId(syncRunId)
+            .sequence(chunk.sequence())
+            .totalChunks(chunk.totalChunks())
             .data(customers)
             .build();
 
-        rabbitTemplate.convertAndSend(exchangeName, customerRoutingKey, message);
-        log.info("Published {} customers", customers.size());
+        log.debug("Publishing {} customers (run {}, chunk {}/{})", customers.size(), syncRunId, chunk.sequence(), chunk.totalChunks());
+        return confirmingPublisher.publish(exchangeName, customerRoutingKey, message);
+    }
+
+    /**
+     * Publishes one delta chunk: changed records and/or ids deleted upstream.
+     */
+    public CompletableFuture<Void> publishCustomersDelta(List<Customer> customers, List<String> deletedIds,
+                                                    String syncRunId, PaginatedFetcher.Chunk chunk) {
+        CustomerMessage message = CustomerMessage.builder()
+            .correlationId(UUID.randomUUID().toString())
+            .timestamp(Instant.now())
+            .source("integration-producer")
+            .syncRunId(syncRunId)
+            .sequence(chunk.sequence())
+            .totalChunks(chunk.totalChunks())
+            .mode("delta")
+            .data(customers)
+            .deletedIds(deletedIds)
+            .build();
+
+        log.debug("Publishing {} changed and {} deleted customers (run {}, chunk {})",
+            customers.size(), deletedIds.size(), syncRunId, chunk.sequence());
+        return confirmingPublisher.publish(exchangeName, customerRoutingKey, message);
     }
 
     public AddCustomerSoapResponse addCustomerViaSoap(String firstName, String lastName, String email, String phone) {
@@ -77,4 +181,28 @@ public class CrmService {
             Instant.now().toString()
         );
     }
+
+    /**
+     * Adds customers with concurrent SOAP AddCustomer calls, at most
+     * {@code crm.soap.bulk.concurrency} at a time across all bulk requests.
+     * A failed call yields an unsuccessful result for that customer only.
+     */
+    public BulkAddCustomersResponse addCustomersViaSoap(List<NewCustomer> customers) {
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<AddCustomerSoapResponse>> futures = new ArrayList<>(customers.size());
+        for (NewCustomer customer : customers) {
+            soapPermits.acquireUninterruptibly();
+            futures.add(CompletableFuture
+                .supplyAsync(() -> addCustomerViaSoap(
+                    customer.firstName(), customer.lastName(), customer.email(), customer.phone()), soapExecutor)
+                .exceptionally(e -> new AddCustomerSoapResponse(false, null, e.getMessage(), Instant.now().toString()))
+                .whenComplete((response, e) -> soapPermits.release()));
+        }
+
+        List<AddCustomerSoapResponse> results = futures.stream().map(CompletableFuture::join).toList();
+        int succeeded = (int) results.stream().filter(AddCustomerSoapResponse::soapSuccess).count();
+        long durationMs = System.currentTimeMillis() - start;
+        log.info("Bulk SOAP AddCustomer: {} of {} succeeded in {} ms", succeeded, results.size(), durationMs);
+        return new BulkAddCustomersResponse(results.size(), succeeded, results.size() - succeeded, durationMs, results);
+    }
 }
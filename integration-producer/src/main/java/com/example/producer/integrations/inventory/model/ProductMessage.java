@@ -27,6 +27,27 @@ public class ProductMessage implements Serializable {
     @JsonProperty("source")
     private String source;
 
+    /** Shared by every chunk published by one sync run. */
+    @JsonProperty("sync_run_id")
+    private String syncRunId;
+
+    /** Zero-based position of this chunk within the run. */
+    @JsonProperty("sequence")
+    private int sequence;
+
+    /** Number of chunks in the run, including the closing one; set only on the run's closing chunk. */
+    @JsonProperty("total_chunks")
+    private Integer totalChunks;
+
+    /** {@code full}, or {@code delta} when {@code data} only holds inserts and updates. */
+    @JsonProperty("mode")
+    @Builder.Default
+    private String mode = "full";
+
+    /** Ids removed upstream since the previous delta run (delta mode only). */
+    @JsonProperty("deleted_ids")
+    private List<String> deletedIds;
+
     @JsonProperty("data")
     private List<Product> data;
 }
@@ -1,9 +1,10 @@
 package com.example.producer.integrations.inventory.service;
 
+import com.example.producer.common.auth.TokenCache;
 import com.example.producer.common.model.AuthRequest;
 import com.example.producer.common.model.TokenResponse;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.HttpEntity;
@@ -13,16 +14,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 @Service
 public class InventoryAuthService {
 
-    private static final Logger log = LoggerFactory.getLogger(InventoryAuthService.class);
     private static final String TOKEN_CACHE_KEY = "inventory-service:token";
-    private static final Duration TOKEN_TTL = Duration.ofMinutes(55);
 
     private final RestTemplate restTemplate;
-    private final StringRedisTemplate redisTemplate;
+    private final TokenCache tokenCache;
 
     @Value("${mock-service.base-url}")
     private String mockServiceUrl;
@@ -33,25 +34,33 @@ public class InventoryAuthService {
     @Value("${mock-service.auth.password:inventory_password}")
     private String password;
 
-    public InventoryAuthService(StringRedisTemplate redisTemplate) {
-        this.restTemplate = new RestTemplate();
-        this.redisTemplate = redisTemplate;
+    public InventoryAuthService(@Qualifier("inventoryRestTemplate") RestTemplate restTemplate,
+                                StringRedisTemplate redisTemplate,
+                                @Value("${auth.token.refresh-ahead:5m}") Duration refreshAhead,
+                          @Qualifier("tokenRefreshExecutor") Executor refreshExecutor,
+                          MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.tokenCache = new TokenCache("Inventory", TOKEN_CACHE_KEY, redisTemplate, this::fetchNewToken, refreshAhead,
+            refreshExecutor, meterRegistry);
     }
 
     public String getToken() {
-        String cachedToken = redisTemplate.opsForValue().get(TOKEN_CACHE_KEY);
-        if (cachedToken != null) {
-            log.debug("Using cached Inventory token");
-            return cachedToken;
-        }
+        return tokenCache.getToken();
+    }
+
+    public void invalidate(String token) {
+        tokenCache.invalidate(token);
+    }
 
-        log.info("Fetching new Inventory token");
-        String token = fetchNewToken();
-        redisTemplate.opsForValue().set(TOKEN_CACHE_KEY, token, TOKEN_TTL);
-        return token;
+    /**
+     * Runs an upstream call with a bearer token, retrying once with a fresh
+     * token if the cached one is rejected.
+     */
+    public <T> T withToken(Function<String, T> call) {
+        return tokenCache.withToken(call);
     }
 
-    private String fetchNewToken() {
+    private TokenResponse fetchNewToken() {
         String authUrl = mockServiceUrl + "/auth/token";
 
         HttpHeaders headers = new HttpHeaders();
@@ -66,6 +75,6 @@ public class InventoryAuthService {
             throw new RuntimeException("Failed to obtain Inventory token");
         }
 
-        return response.getAccessToken();
+        return response;
     }
 }
@@ -1,18 +1,25 @@
 package com.example.producer.integrations.inventory.service;
 
+import com.example.producer.common.delta.ContentHashStore;
+import com.example.producer.common.delta.DeltaRun;
+import com.example.producer.common.messaging.ConfirmingPublisher;
+import com.example.producer.common.messaging.PublishTracker;
 import com.example.producer.common.model.PagedResponse;
+import com.example.producer.common.pagination.PaginatedFetcher;
+import com.example.producer.common.sync.SyncResult;
 import com.example.producer.integrations.inventory.client.InventoryClient;
 import com.example.producer.integrations.inventory.model.Product;
 import com.example.producer.integrations.inventory.model.ProductMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
 
 @Service
 public class InventoryService {
@@ -20,7 +27,9 @@ public class InventoryService {
     private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
 
     private final InventoryClient inventoryClient;
-    private final RabbitTemplate rabbitTemplate;
+    private final ConfirmingPublisher confirmingPublisher;
+    private final PaginatedFetcher paginatedFetcher;
+    private final ContentHashStore contentHashStore;
 
     @Value("${rabbitmq.exchanges.integration}")
     private String exchangeName;
@@ -28,16 +37,64 @@ public class InventoryService {
     @Value("${rabbitmq.routing-keys.inventory}")
     private String inventoryRoutingKey;
 
-    public InventoryService(InventoryClient inventoryClient, RabbitTemplate rabbitTemplate) {
+    @Value("${sync.streaming.enabled:false}")
+    private boolean streamingDecode;
+
+    @Value("${sync.delta.enabled:false}")
+    private boolean deltaSync;
+
+    public InventoryService(InventoryClient inventoryClient, ConfirmingPublisher confirmingPublisher,
+                            PaginatedFetcher paginatedFetcher, ContentHashStore contentHashStore) {
         this.inventoryClient = inventoryClient;
-        this.rabbitTemplate = rabbitTemplate;
+        this.confirmingPublisher = confirmingPublisher;
+        this.paginatedFetcher = paginatedFetcher;
+        this.contentHashStore = contentHashStore;
+    }
+
+    public SyncResult syncProducts() {
+        return syncProducts(count -> {});
+    }
+
+    /**
+     * Fetches every page and publishes it as it arrives, reporting each
+     * chunk's size to {@code onPublished} once the broker confirms it. The run
+     * only succeeds after every chunk is confirmed. The run ends with an empty
+     * closing chunk carrying the real chunk count. With {@code sync.delta.enabled}
+     * only changed records are published, followed by a tombstone message.
+     */
+    public SyncResult syncProducts(LongConsumer onPublished) {
+        long start = System.currentTimeMillis();
+        PublishTracker tracker = new PublishTracker();
+        String syncRunId = UUID.randomUUID().toString();
+        DeltaRun<Product> delta = deltaSync ? contentHashStore.begin("products", Product::getProductId) : null;
+        DeltaRun.DeltaSender<Product> deltaSender = (changed, deletedIds, chunk) ->
+            publishProductsDelta(changed, deletedIds, syncRunId, chunk);
+        PaginatedFetcher.ChunkPublisher<Product> publisher = delta != null
+            ? delta.changesOnly(deltaSender, tracker, onPublished)
+            : (products, chunk) -> tracker.track(publishProducts(products, syncRunId, chunk), products.size(), onPublished);
+
+        try {
+            PaginatedFetcher.PaginationResult result = streamingDecode
+                ? paginatedFetcher.streamAll("products", inventoryClient::streamProducts, publisher)
+                : paginatedFetcher.fetchAll("products", inventoryClient::getProducts, publisher);
+            if (delta != null) {
+                delta.finish(deltaSender, tracker);
+            } else {
+                tracker.track(publishProducts(List.of(), syncRunId, result.closingChunk()), 0, count -> {});
+            }
+            tracker.awaitConfirms();
+            return SyncResult.success("products", result, tracker.confirmedRecords(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to fetch/publish all products", e);
+            return SyncResult.failure("products", e, tracker.confirmedRecords(), System.currentTimeMillis() - start);
+        }
     }
 
     public int fetchAndPublishProducts(int page, int size) {
         try {
             PagedResponse<Product> response = inventoryClient.getProducts(page, size);
             List<Product> products = response.getContent();
-            publishProducts(products);
+            publishProducts(products).join();
             log.info("Published {} products", products.size());
             return products.size();
         } catch (Exception e) {
@@ -51,15 +108,50 @@ public class InventoryService {
         return response.getContent();
     }
 
-    public void publishProducts(List<Product> products) {
+    /**
+     * Publishes {@code products} as a standalone, single-chunk run.
+     */
+    public CompletableFuture<Void> publishProducts(List<Product> products) {
+        return publishProducts(products, UUID.randomUUID().toString(), new PaginatedFetcher.Chunk(0, 1));
+    }
+
+    /**
+     * Publishes one chunk of a sync run and returns a future that completes on broker confirm.
+     */
+    public CompletableFuture<Void> publishProducts(List<Product> products, String syncRunId, PaginatedFetcher.Chunk chunk) {
+        ProductMessage message = ProductMessage.builder()
+            .correlationId(UUID.randomUUID().toString())
+            .timestamp(Instant.now())
+            .source("integration-producer")
+            .syncRunId(syncRunId)
+            .sequence(chunk.sequence())
+            .totalChunks(chunk.totalChunks())
+            .data(products)
+            .build();
+
+        log.debug("Publishing {} products (run {}, chunk {}/{})", products.size(), syncRunId, chunk.sequence(), chunk.totalChunks());
+        return confirmingPublisher.publish(exchangeName, inventoryRoutingKey, message);
+    }
+
+    /**
+     * Publishes one delta chunk: changed records and/or ids deleted upstream.
+     */
+    public CompletableFuture<Void> publishProductsDelta(List<Product> products, List<String> deletedIds,
+                                                    String syncRunId, PaginatedFetcher.Chunk chunk) {
         ProductMessage message = ProductMessage.builder()
             .correlationId(UUID.randomUUID().toString())
             .timestamp(Instant.now())
             .source("integration-producer")
+            .syncRunId(syncRunId)
+            .sequence(chunk.sequence())
+            .totalChunks(chunk.totalChunks())
+            .mode("delta")
             .data(products)
+            .deletedIds(deletedIds)
             .build();
 
-        rabbitTemplate.convertAndSend(exchangeName, inventoryRoutingKey, message);
-        log.info("Published {} products", products.size());
+        log.debug("Publishing {} changed and {} deleted products (run {}, chunk {})",
+            products.size(), deletedIds.size(), syncRunId, chunk.sequence());
+        return confirmingPublisher.publish(exchangeName, inventoryRoutingKey, message);
     }
 }
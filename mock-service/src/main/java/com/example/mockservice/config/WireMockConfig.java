@@ -1,11 +1,13 @@
 package com.example.mockservice.config;
 
+import com.example.mockservice.synthetic.SyntheticStubs;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -31,9 +33,22 @@ public class WireMockConfig {
     @Value("${wiremock.server.verbose:true}")
     private boolean verbose;
 
+    @Value("${wiremock.server.container-threads:25}")
+    private int containerThreads;
+
+    // Serve delayed responses without holding a Jetty thread for the delay
+    @Value("${wiremock.server.async-response-threads:0}")
+    private int asyncResponseThreads;
+
+    private final ObjectProvider<SyntheticStubs> syntheticStubs;
+
     private WireMockServer wireMockServer;
     private Path wireMockRootDir;
 
+    public WireMockConfig(ObjectProvider<SyntheticStubs> syntheticStubs) {
+        this.syntheticStubs = syntheticStubs;
+    }
+
     @Bean
     public WireMockServer wireMockServer() throws IOException {
         wireMockRootDir = extractWireMockResources();
@@ -42,10 +57,16 @@ public class WireMockConfig {
             .port(wireMockPort)
             .withRootDirectory(wireMockRootDir.toString())
             .globalTemplating(true)
+            .containerThreads(containerThreads)
             .notifier(new ConsoleNotifier(verbose));
+        if (asyncResponseThreads > 0) {
+            config.asynchronousResponseEnabled(true).asynchronousResponseThreads(asyncResponseThreads);
+        }
+        syntheticStubs.ifAvailable(stubs -> config.extensions(stubs.transformer()));
 
         wireMockServer = new WireMockServer(config);
         wireMockServer.start();
+        syntheticStubs.ifAvailable(stubs -> stubs.register(wireMockServer));
 
         log.info("WireMock server started on port {}", wireMockPort);
         log.info("WireMock root directory: {}", wireMockRootDir);
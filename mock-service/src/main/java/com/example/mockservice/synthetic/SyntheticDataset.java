@@ -0,0 +1,136 @@
+package com.example.mockservice.synthetic;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic customers and products, generated on demand from their index,
+ * so any page of a multi-million record dataset can be served without holding
+ * it in memory. The same seed always yields the same records.
+ *
+ * <p>Every customer owns {@code productsPerCustomer} consecutive products, so a
+ * full sync of both sources aggregates every customer.
+ */
+public class SyntheticDataset {
+
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda",
+        "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis",
+        "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas"
+    };
+    private static final String[] CATEGORIES = {
+        "Electronics", "Clothing", "Home & Garden", "Sports", "Books", "Toys", "Beauty", "Automotive"
+    };
+    private static final String[] PRODUCT_NAMES = {
+        "Widget", "Gadget", "Speaker", "Jacket", "Lamp", "Racket", "Novel", "Puzzle", "Serum", "Charger"
+    };
+    private static final Instant EPOCH = Instant.parse("2023-01-01T00:00:00Z");
+    private static final long TWO_YEARS_SECONDS = 2 * 365 * 24 * 3600L;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final long customers;
+    private final int productsPerCustomer;
+    private final long seed;
+
+    public SyntheticDataset(long customers, int productsPerCustomer, long seed) {
+        this.customers = customers;
+        this.productsPerCustomer = productsPerCustomer;
+        this.seed = seed;
+    }
+
+    public long customerCount() {
+        return customers;
+    }
+
+    public long productCount() {
+        return customers * productsPerCustomer;
+    }
+
+    public byte[] customersPage(int page, int size) {
+        return page(page, size, customerCount(), this::writeCustomer);
+    }
+
+    public byte[] productsPage(int page, int size) {
+        return page(page, size, productCount(), this::writeProduct);
+    }
+
+    public static String customerId(long index) {
+        return String.format("CUST_%08d", index + 1);
+    }
+
+    private byte[] page(int page, int size, long total, RecordWriter recordWriter) {
+        long from = Math.min((long) page * size, total);
+        long to = Math.min(from + size, total);
+        int totalPages = (int) ((total + size - 1) / size);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) (to - from) * 256 + 256);
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("content");
+            for (long index = from; index < to; index++) {
+                json.writeStartObject();
+                recordWriter.write(json, index, random(index));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeNumberField("page", page);
+            json.writeNumberField("size", size);
+            json.writeNumberField("total_elements", total);
+            json.writeNumberField("total_pages", totalPages);
+            json.writeBooleanField("has_next", page + 1 < totalPages);
+            json.writeBooleanField("has_previous", page > 0);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private void writeCustomer(JsonGenerator json, long index, SplittableRandom random) throws IOException {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        int status = random.nextInt(10);
+
+        json.writeStringField("customer_id", customerId(index));
+        json.writeStringField("first_name", firstName);
+        json.writeStringField("last_name", lastName);
+        json.writeStringField("email",
+            (firstName + "." + lastName).toLowerCase() + "." + (index + 1) + "@example.com");
+        json.writeStringField("phone", String.format("+1555%07d", index % 10_000_000));
+        json.writeStringField("registration_date",
+            EPOCH.plusSeconds(random.nextLong(TWO_YEARS_SECONDS)).toString());
+        json.writeStringField("status", status < 8 ? "ACTIVE" : status < 9 ? "INACTIVE" : "PENDING");
+    }
+
+    private void writeProduct(JsonGenerator json, long index, SplittableRandom random) throws IOException {
+        json.writeStringField("product_id", String.format("PROD_%09d", index + 1));
+        json.writeStringField("customer_id", customerId(index / productsPerCustomer));
+        json.writeStringField("name", PRODUCT_NAMES[random.nextInt(PRODUCT_NAMES.length)] + " " + (index + 1));
+        json.writeStringField("category", CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        json.writeNumberField("price", BigDecimal.valueOf(random.nextInt(100, 200_000), 2));
+        json.writeNumberField("stock_level", random.nextInt(1000));
+        json.writeStringField("last_updated", EPOCH.plusSeconds(random.nextLong(TWO_YEARS_SECONDS)).toString());
+    }
+
+    /** A generator per record, so a record does not depend on which page it is served in. */
+    private SplittableRandom random(long index) {
+        return new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(JsonGenerator json, long index, SplittableRandom random) throws IOException;
+    }
+}
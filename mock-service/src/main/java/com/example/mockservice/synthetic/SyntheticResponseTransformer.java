@@ -0,0 +1,106 @@
+package com.example.mockservice.synthetic;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformerV2;
+import com.github.tomakehurst.wiremock.http.QueryParameter;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills in the bodies of the synthetic stubs: pages of the {@link SyntheticDataset}
+ * honouring {@code page} and {@code size}, and SOAP AddCustomer responses with a
+ * unique customer id. A configurable fraction of requests fails instead.
+ */
+public class SyntheticResponseTransformer implements ResponseDefinitionTransformerV2 {
+
+    public static final String NAME = "synthetic-data";
+    public static final String DATASET_PARAMETER = "dataset";
+
+    private static final String ADD_CUSTOMER_RESPONSE = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/">
+          <soap:Body>
+            <ns2:AddCustomerResponse xmlns:ns2="http://example.com/crm">
+              <status>SUCCESS</status>
+              <customerId>%s</customerId>
+              <message>Customer created successfully</message>
+            </ns2:AddCustomerResponse>
+          </soap:Body>
+        </soap:Envelope>""";
+
+    private final SyntheticDataset dataset;
+    private final int maxPageSize;
+    private final double errorRate;
+    private final int errorStatus;
+    // Minted ids continue after the generated customers, so they never collide with them
+    private final AtomicLong lastCustomerIndex;
+
+    public SyntheticResponseTransformer(SyntheticDataset dataset, int maxPageSize, double errorRate, int errorStatus) {
+        this.dataset = dataset;
+        this.maxPageSize = maxPageSize;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.lastCustomerIndex = new AtomicLong(dataset.customerCount() - 1);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean applyGlobally() {
+        return false;
+    }
+
+    @Override
+    public ResponseDefinition transform(ServeEvent serveEvent) {
+        ResponseDefinition definition = serveEvent.getResponseDefinition();
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            return ResponseDefinitionBuilder.like(definition).but()
+                .withStatus(errorStatus)
+                .withHeader("Content-Type", "application/json")
+                .withBody("{\"error\":\"Injected failure\",\"status\":" + errorStatus + "}")
+                .build();
+        }
+
+        Object kind = definition.getTransformerParameters().get(DATASET_PARAMETER);
+        if ("add-customer".equals(kind)) {
+            String customerId = SyntheticDataset.customerId(lastCustomerIndex.incrementAndGet());
+            return ResponseDefinitionBuilder.like(definition).but()
+                .withBody(ADD_CUSTOMER_RESPONSE.formatted(customerId))
+                .build();
+        }
+
+        int page;
+        int size;
+        try {
+            page = intParameter(serveEvent.getRequest().queryParameter("page"), 0);
+            size = intParameter(serveEvent.getRequest().queryParameter("size"), 20);
+        } catch (NumberFormatException e) {
+            return badRequest(definition, "page and size must be integers");
+        }
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            return badRequest(definition, "page must be >= 0 and size between 1 and " + maxPageSize);
+        }
+
+        byte[] body = "products".equals(kind) ? dataset.productsPage(page, size) : dataset.customersPage(page, size);
+        return ResponseDefinitionBuilder.like(definition).but()
+            .withBody(body)
+            .build();
+    }
+
+    private static int intParameter(QueryParameter parameter, int defaultValue) {
+        return parameter.isPresent() ? Integer.parseInt(parameter.firstValue()) : defaultValue;
+    }
+
+    private static ResponseDefinition badRequest(ResponseDefinition definition, String message) {
+        return ResponseDefinitionBuilder.like(definition).but()
+            .withStatus(400)
+            .withBody("{\"error\":\"Bad Request\",\"message\":\"" + message + "\",\"status\":400}")
+            .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.mockservice.synthetic;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+
+/**
+ * Synthetic-data mode for load tests, enabled with {@code mock.synthetic.enabled}.
+ * Replaces the static customer, product and SOAP AddCustomer stubs with ones
+ * backed by {@link SyntheticResponseTransformer}.
+ */
+@Component
+@ConditionalOnProperty(name = "mock.synthetic.enabled", havingValue = "true")
+public class SyntheticStubs {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticStubs.class);
+
+    private static final String AUTHORIZATION = "Bearer mock_token_12345";
+
+    private final SyntheticResponseTransformer transformer;
+    private final SyntheticDataset dataset;
+    private final Duration latencyMedian;
+    private final double latencySigma;
+
+    public SyntheticStubs(
+        @Value("${mock.synthetic.customers:1000000}") long customers,
+        @Value("${mock.synthetic.products-per-customer:3}") int productsPerCustomer,
+        @Value("${mock.synthetic.seed:42}") long seed,
+        @Value("${mock.synthetic.max-page-size:1000}") int maxPageSize,
+        @Value("${mock.synthetic.latency.median:0ms}") Duration latencyMedian,
+        @Value("${mock.synthetic.latency.sigma:0.1}") double latencySigma,
+        @Value("${mock.synthetic.error-rate:0}") double errorRate,
+        @Value("${mock.synthetic.error-status:503}") int errorStatus
+    ) {
+        this.dataset = new SyntheticDataset(customers, productsPerCustomer, seed);
+        this.transformer = new SyntheticResponseTransformer(dataset, maxPageSize, errorRate, errorStatus);
+        this.latencyMedian = latencyMedian;
+        this.latencySigma = latencySigma;
+    }
+
+    public SyntheticResponseTransformer transformer() {
+        return transformer;
+    }
+
+    /**
+     * Registers the synthetic stubs. They share priority 1 with the static
+     * stubs, and WireMock prefers the most recently added of equal priority.
+     */
+    public void register(WireMockServer server) {
+        server.stubFor(authorized(get(urlPathMatching("/crm/api/customers.*")))
+            .willReturn(response("customers", "application/json")));
+        server.stubFor(authorized(get(urlPathMatching("/inventory/api/products.*")))
+            .willReturn(response("products", "application/json")));
+        server.stubFor(post(urlPathEqualTo("/crm/soap/customers"))
+            .atPriority(1)
+            .willReturn(response("add-customer", "text/xml; charset=utf-8")));
+
+        log.info("Synthetic data enabled: {} customers, {} products, median latency {} ms",
+            dataset.customerCount(), dataset.productCount(), latencyMedian.toMillis());
+    }
+
+    private static MappingBuilder authorized(MappingBuilder request) {
+        return request.atPriority(1).withHeader("Authorization", equalTo(AUTHORIZATION));
+    }
+
+    private ResponseDefinitionBuilder response(String kind, String contentType) {
+        ResponseDefinitionBuilder response = aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", contentType)
+            .withTransformers(SyntheticResponseTransformer.NAME)
+            .withTransformerParameter(SyntheticResponseTransformer.DATASET_PARAMETER, kind);
+        if (!latencyMedian.isZero()) {
+            response.withLogNormalRandomDelay(latencyMedian.toMillis(), latencySigma);
+        }
+        return response;
+    }
+}
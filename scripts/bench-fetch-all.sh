@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+#
+# Compares /api/callback/fetch-all throughput of the integration-producer with
+# platform threads vs virtual threads.
+#
+# The producer is started once per mode from the packaged jar, so RabbitMQ,
+# Redis and the mock service must already be running. Virtual mode needs a
+# Java 21+ runtime on PATH (or JAVA_BIN).
+#
+# Usage: scripts/bench-fetch-all.sh [requests] [concurrency]
+
+set -euo pipefail
+
+REQUESTS=${1:-200}
+CONCURRENCY=${2:-50}
+PORT=${PORT:-8082}
+JAVA_BIN=${JAVA_BIN:-java}
+JAR=${JAR:-integration-producer/target/integration-producer-1.0.0.jar}
+URL="http://localhost:${PORT}/api/callback/fetch-all"
+
+if [[ ! -f "$JAR" ]]; then
+  echo "Producer jar not found at $JAR (run: mvn -f integration-producer/pom.xml package -DskipTests)" >&2
+  exit 1
+fi
+
+wait_for_health() {
+  for _ in $(seq 1 60); do
+    if curl -sf "http://localhost:${PORT}/actuator/health" > /dev/null; then
+      return 0
+    fi
+    sleep 1
+  done
+  echo "Producer did not become healthy" >&2
+  return 1
+}
+
+run_mode() {
+  local mode=$1 virtual=$2
+  "$JAVA_BIN" -jar "$JAR" --server.port="$PORT" --spring.threads.virtual.enabled="$virtual" \
+    > "/tmp/bench-fetch-all-${mode}.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' RETURN
+
+  wait_for_health
+  # Warm up connection pools, token cache and JIT
+  for _ in $(seq 1 5); do curl -s -o /dev/null -X POST "$URL"; done
+
+  local start end failures
+  start=$(date +%s.%N)
+  failures=$(seq 1 "$REQUESTS" \
+    | xargs -P "$CONCURRENCY" -I{} curl -s -o /dev/null -w '%{http_code}\n' -X POST "$URL" \
+    | grep -vc '^200$' || true)
+  end=$(date +%s.%N)
+
+  awk -v mode="$mode" -v n="$REQUESTS" -v f="$failures" -v s="$start" -v e="$end" \
+    'BEGIN { d = e - s; printf "%-9s %8d %8d %10.2f %10.2f\n", mode, n, f, d, n / d }'
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+}
+
+printf "%-9s %8s %8s %10s %10s\n" "mode" "requests" "failed" "seconds" "req/s"
+run_mode platform false
+run_mode virtual true
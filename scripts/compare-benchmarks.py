@@ -0,0 +1,62 @@
+#!/usr/bin/env python3
+"""
+Compares two JMH JSON result files (from scripts/run-benchmarks.sh) and prints
+the score change of every benchmark and parameter combination present in both.
+
+Usage: scripts/compare-benchmarks.py BASE.json HEAD.json [--threshold PERCENT]
+
+Exits with status 1 when any benchmark got slower by more than the threshold
+(default 10%), so it can gate a CI job.
+"""
+
+import argparse
+import json
+import sys
+
+
+def load(path):
+    with open(path) as f:
+        results = json.load(f)
+    scores = {}
+    for result in results:
+        params = ",".join(f"{k}={v}" for k, v in sorted((result.get("params") or {}).items()))
+        name = result["benchmark"].rsplit(".", 2)
+        key = (".".join(name[-2:]), params)
+        metric = result["primaryMetric"]
+        scores[key] = (metric["score"], metric["scoreError"], metric["scoreUnit"])
+    return scores
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__.strip().splitlines()[0])
+    parser.add_argument("base")
+    parser.add_argument("head")
+    parser.add_argument("--threshold", type=float, default=10.0)
+    args = parser.parse_args()
+
+    base = load(args.base)
+    head = load(args.head)
+    regressions = 0
+
+    print(f"{'benchmark':<50} {'params':<30} {'base':>12} {'head':>12} {'change':>8}")
+    for key in sorted(base.keys() & head.keys()):
+        base_score, _, unit = base[key]
+        head_score, head_error, _ = head[key]
+        change = (head_score - base_score) / base_score * 100 if base_score else 0.0
+        # All suites report average time, so a higher score is slower
+        flag = ""
+        if change > args.threshold:
+            flag = "  REGRESSION"
+            regressions += 1
+        print(f"{key[0]:<50} {key[1]:<30} {base_score:>12.2f} {head_score:>12.2f} {change:>+7.1f}%{flag}")
+
+    for key in sorted(base.keys() ^ head.keys()):
+        print(f"{key[0]:<50} {key[1]:<30} only in {'base' if key in base else 'head'}")
+
+    if regressions:
+        print(f"\n{regressions} benchmark(s) slower by more than {args.threshold}%", file=sys.stderr)
+        sys.exit(1)
+
+
+if __name__ == "__main__":
+    main()
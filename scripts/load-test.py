@@ -0,0 +1,125 @@
+#!/usr/bin/env python3
+"""
+End-to-end sync load test: producer -> RabbitMQ -> consumer-service -> analytics DB.
+
+Starts an async fetch-all on the integration-producer and follows it until the
+analytic-service has written every published customer, then reports publish
+and end-to-end throughput. Analytics progress is read from the
+analytics_ingest_rows_total counters on /actuator/prometheus, so the database
+does not need to be reachable from here.
+
+Run the whole stack first, with the mock-service in synthetic mode so the
+dataset size, latency and error rate are under control:
+
+    java -jar mock-service/target/mock-service-1.0.0.jar \\
+        --spring.profiles.active=synthetic --mock.synthetic.customers=200000
+
+Usage: scripts/load-test.py [--producer URL] [--analytics URL] [--output results.json]
+"""
+
+import argparse
+import json
+import sys
+import time
+import urllib.request
+
+POLL_SECONDS = 1.0
+
+
+def request(method, url):
+    req = urllib.request.Request(url, method=method, headers={"Accept": "application/json"})
+    with urllib.request.urlopen(req, timeout=30) as response:
+        return response.read().decode("utf-8")
+
+
+def ingested_rows(analytics_url):
+    """Rows written by the analytic-service so far, per table."""
+    rows = {"customers": 0.0, "products": 0.0}
+    for line in request("GET", f"{analytics_url}/actuator/prometheus").splitlines():
+        if not line.startswith("analytics_ingest_rows_total{"):
+            continue
+        for table in rows:
+            if f'table="{table}"' in line:
+                rows[table] += float(line.rsplit(" ", 1)[1])
+    return rows
+
+
+def rate(count, seconds):
+    return round(count / seconds, 1) if seconds > 0 else None
+
+
+def main():
+    parser = argparse.ArgumentParser(description="End-to-end sync load test")
+    parser.add_argument("--producer", default="http://localhost:8082")
+    parser.add_argument("--analytics", default="http://localhost:8083")
+    parser.add_argument("--idle-timeout", type=float, default=60.0,
+                        help="give up after this many seconds without analytics progress")
+    parser.add_argument("--output", help="also write the results as JSON to this file")
+    args = parser.parse_args()
+
+    baseline = ingested_rows(args.analytics)
+    started = time.monotonic()
+    job = json.loads(request("POST", f"{args.producer}/api/callback/fetch-all?async=true"))
+    job_id = job["job_id"]
+    print(f"Started sync job {job_id}")
+
+    # Phase 1: producer fetches and publishes (with broker confirms)
+    while True:
+        snapshot = json.loads(request("GET", f"{args.producer}/api/callback/jobs/{job_id}"))
+        published = snapshot.get("records_published") or {}
+        print(f"  publishing: {published}", flush=True)
+        if snapshot["state"] != "RUNNING":
+            break
+        time.sleep(POLL_SECONDS)
+    publish_seconds = time.monotonic() - started
+
+    if snapshot["state"] != "COMPLETED":
+        print(f"Sync job finished as {snapshot['state']}: {json.dumps(snapshot['results'])}", file=sys.stderr)
+    customers_published = published.get("customers", 0)
+    products_published = published.get("products", 0)
+
+    # Phase 2: consumer aggregates and posts to analytics
+    last_progress = time.monotonic()
+    last_rows = baseline
+    while True:
+        rows = ingested_rows(args.analytics)
+        customers_written = rows["customers"] - baseline["customers"]
+        print(f"  ingesting: {int(customers_written)}/{customers_published} customers", flush=True)
+        if rows != last_rows:
+            last_rows = rows
+            last_progress = time.monotonic()
+        if customers_written >= customers_published:
+            break
+        if time.monotonic() - last_progress > args.idle_timeout:
+            print(f"No analytics progress for {args.idle_timeout:.0f}s, stopping", file=sys.stderr)
+            break
+        time.sleep(POLL_SECONDS)
+    end_to_end_seconds = last_progress - started
+
+    customers_written = int(last_rows["customers"] - baseline["customers"])
+    products_written = int(last_rows["products"] - baseline["products"])
+    results = {
+        "job_id": job_id,
+        "state": snapshot["state"],
+        "customers_published": customers_published,
+        "products_published": products_published,
+        "publish_seconds": round(publish_seconds, 2),
+        "publish_records_per_second": rate(customers_published + products_published, publish_seconds),
+        "customers_written": customers_written,
+        "products_written": products_written,
+        "end_to_end_seconds": round(end_to_end_seconds, 2),
+        "end_to_end_customers_per_second": rate(customers_written, end_to_end_seconds),
+        "end_to_end_rows_per_second": rate(customers_written + products_written, end_to_end_seconds),
+        "complete": customers_written >= customers_published,
+    }
+
+    print(json.dumps(results, indent=2))
+    if args.output:
+        with open(args.output, "w") as f:
+            json.dump(results, f, indent=2)
+    if not results["complete"]:
+        sys.exit(1)
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+#
+# Builds the JMH benchmarks module and runs it against the working tree. JMH
+# results are written as JSON to benchmarks/results/<commit>.json and encoded
+# message sizes to benchmarks/results/<commit>-sizes.json, so runs on two
+# commits can be compared with scripts/compare-benchmarks.py.
+#
+# Extra arguments go to JMH, e.g. a benchmark regex or -p pageSize=100.
+#
+# Usage: scripts/run-benchmarks.sh [jmh args...]
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+REVISION=$(git rev-parse --short HEAD)
+if [[ -n "$(git status --porcelain -- integration-producer/src analytic-service/src benchmarks/src)" ]]; then
+  REVISION="${REVISION}-dirty"
+fi
+RESULTS_DIR=benchmarks/results
+mkdir -p "$RESULTS_DIR"
+
+mvn -B -q -f benchmarks/pom.xml package -DskipTests
+
+java -cp benchmarks/target/benchmarks.jar com.example.benchmarks.MessageSizeReport \
+  "$RESULTS_DIR/${REVISION}-sizes.json"
+java -jar benchmarks/target/benchmarks.jar -rf json -rff "$RESULTS_DIR/${REVISION}.json" "$@"
+
+echo "Results written to $RESULTS_DIR/${REVISION}.json"